@@ -0,0 +1,90 @@
+package com.fawry.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fawry.kafka.dto.AddressDetails;
+import com.fawry.kafka.dto.OrderItemDTO;
+import com.fawry.kafka.dto.PaymentDetails;
+import com.fawry.kafka.dto.PaymentMethod;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.kafka.serialization.SagaEventAvroCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wire formats of the order-created event: Jackson, configured like the application's mapper, and the
+ * Avro codec used on the topics listed in store.kafka.avro.topics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    @Param({"1", "10"})
+    private int items;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private SagaEventAvroCodec codec;
+    private OrderCreatedEventDTO event;
+    private byte[] json;
+    private byte[] avro;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(OrderCreatedEventDTO.class);
+        reader = objectMapper.readerFor(OrderCreatedEventDTO.class);
+        codec = new SagaEventAvroCodec();
+
+        List<OrderItemDTO> orderItems = new ArrayList<>(items);
+        for (long i = 1; i <= items; i++) {
+            orderItems.add(new OrderItemDTO(1L, 1000 + i, (int) i, new BigDecimal("19.99").multiply(BigDecimal.valueOf(i))));
+        }
+        event = new OrderCreatedEventDTO(42L, 5L, "ORDER_CREATED", "CREATED", "c@shop.test", "Customer", "0100",
+                new AddressDetails("Cairo", "Nasr City", "12 Street"), new BigDecimal("1234.50"), orderItems,
+                new PaymentMethod(new PaymentDetails("4111111111111111", "123", "12/30")));
+        json = writer.writeValueAsBytes(event);
+        avro = codec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() throws IOException {
+        return writer.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] avroSerialize() {
+        return codec.encode(event);
+    }
+
+    @Benchmark
+    public Object avroDeserialize() {
+        return codec.decode(avro);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fawry.benchmark;
+
+import com.fawry.store_api.dto.ProductResponseDTO;
+import com.fawry.store_api.dto.StockDTO;
+import com.fawry.store_api.entity.ProductConsumption;
+import com.fawry.store_api.entity.Stock;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.mapper.ProductConsumptionMapper;
+import com.fawry.store_api.mapper.StockMapper;
+import com.fawry.store_api.mapper.StoreMapper;
+import com.fawry.store_api.repository.StoreRepository;
+import com.fawry.store_api.service.WebClientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of a page of rows, with the product lookup answered from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"50", "500"})
+    private int rows;
+
+    private StockMapper stockMapper;
+    private StoreMapper storeMapper;
+    private ProductConsumptionMapper consumptionMapper;
+    private List<Stock> stocks;
+    private List<Store> stores;
+    private List<ProductConsumption> consumptions;
+    private StockDTO stockDTO;
+
+    @Setup
+    public void setUp() {
+        Store store = store(1L);
+        Map<Long, ProductResponseDTO> products = new HashMap<>();
+        stocks = new ArrayList<>(rows);
+        stores = new ArrayList<>(rows);
+        consumptions = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            products.put(i, new ProductResponseDTO(i, "Product " + i, 9.99 + i, "Description " + i, "https://img/" + i));
+            stocks.add(Stock.builder()
+                    .id(i)
+                    .productId(i)
+                    .store(store)
+                    .stockAvailableQuantity((int) i)
+                    .stockLastUpdated(Instant.now())
+                    .build());
+            stores.add(store(i));
+            consumptions.add(ProductConsumption.builder()
+                    .consumptionId(i)
+                    .productId(i)
+                    .store(store)
+                    .consumptionQuantity(2)
+                    .productPrice(new BigDecimal("19.99"))
+                    .consumptionDate(Instant.now())
+                    .build());
+        }
+
+        WebClientService webClientService = Stubs.stub(WebClientService.class, Map.of(
+                "getProducts", args -> ((Set<?>) args[0]).stream().map(products::get).toList()));
+        StoreRepository storeRepository = Stubs.stub(StoreRepository.class, Map.of(
+                "findById", args -> Optional.of(store)));
+
+        stockMapper = new StockMapper(storeRepository, webClientService);
+        storeMapper = new StoreMapper();
+        consumptionMapper = new ProductConsumptionMapper(storeRepository, webClientService);
+        stockDTO = StockDTO.builder().productId(1L).storeId(1L).stockAvailableQuantity(10).build();
+    }
+
+    @Benchmark
+    public Object stockToDTOList() {
+        return stockMapper.toDTOList(stocks);
+    }
+
+    @Benchmark
+    public Object stockToEntity() {
+        return stockMapper.toEntity(stockDTO);
+    }
+
+    @Benchmark
+    public Object storeToDTOList() {
+        return storeMapper.toDTOList(stores);
+    }
+
+    @Benchmark
+    public Object consumptionToDTOList() {
+        return consumptionMapper.toDTOList(consumptions);
+    }
+
+    private static Store store(long id) {
+        return Store.builder()
+                .id(id)
+                .name("Store " + id)
+                .address(id + " Benchmark Street")
+                .stockQuantity(1_000L * id)
+                .stockItemCount((int) id)
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.fawry.benchmark;
+
+import com.fawry.kafka.dto.OrderItemDTO;
+import com.fawry.kafka.events.OrderCanceledEventDTO;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.kafka.events.StoreCreatedEventDTO;
+import com.fawry.kafka.producers.StoreCancellationPublisher;
+import com.fawry.kafka.producers.StoreUpdatedPublisher;
+import com.fawry.store_api.dto.StockAdjustmentDTO;
+import com.fawry.store_api.mapper.StoreMapper;
+import com.fawry.store_api.repository.InventoryReservationRepository;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.repository.StoreRepository;
+import com.fawry.store_api.service.WebClientService;
+import com.fawry.store_api.service.impl.StoreServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reserve-or-reject decision of {@link StoreServiceImpl#reserveStore} with in-memory repositories
+ * and publishers: line coalescing, the availability check, the batched decrement and event assembly.
+ * The database round trips are deliberately left out; this tracks the CPU cost of the logic only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationBenchmark {
+
+    private static final int AVAILABLE = 1_000_000;
+
+    @Param({"1", "5", "20"})
+    private int items;
+
+    private StoreServiceImpl storeService;
+    private OrderCreatedEventDTO inStockOrder;
+    private OrderCreatedEventDTO shortOrder;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+
+        StockRepository stockRepository = Stubs.stub(StockRepository.class, Map.of(
+                "findStockLevels", args -> levels((Collection<?>) args[1]),
+                "decrementAllIfAvailable", args -> decremented((List<?>) args[0]),
+                "incrementAll", args -> null));
+        InventoryReservationRepository reservationRepository = Stubs.stub(InventoryReservationRepository.class, Map.of(
+                "insertReservations", args -> null,
+                "releaseReservations", args -> List.of()));
+
+        storeService = new StoreServiceImpl(
+                Stubs.stub(StoreRepository.class, Map.of()),
+                new StoreMapper(),
+                stockRepository,
+                Stubs.stub(WebClientService.class, Map.of()),
+                reservationRepository,
+                new StoreCancellationPublisher(null) {
+                    @Override
+                    public void publishOrderCanceledEvent(OrderCanceledEventDTO canceledEvent) {
+                        ReservationBenchmark.this.blackhole.consume(canceledEvent);
+                    }
+                },
+                new StoreUpdatedPublisher(null) {
+                    @Override
+                    public void publishStoreUpdatedEvent(StoreCreatedEventDTO createdEvent) {
+                        ReservationBenchmark.this.blackhole.consume(createdEvent);
+                    }
+                },
+                new SimpleMeterRegistry());
+
+        inStockOrder = order(items, 1);
+        shortOrder = order(items, AVAILABLE + 1);
+    }
+
+    @Benchmark
+    public void reserveInStockOrder() {
+        storeService.reserveStore(inStockOrder);
+    }
+
+    @Benchmark
+    public void rejectShortOrder() {
+        storeService.reserveStore(shortOrder);
+    }
+
+    private static List<StockAdjustmentDTO> levels(Collection<?> productIds) {
+        return productIds.stream()
+                .map(productId -> new StockAdjustmentDTO(1L, (Long) productId, AVAILABLE))
+                .toList();
+    }
+
+    private static int[] decremented(List<?> lines) {
+        int[] updated = new int[lines.size()];
+        Arrays.fill(updated, 1);
+        return updated;
+    }
+
+    private static OrderCreatedEventDTO order(int items, int quantity) {
+        List<OrderItemDTO> orderItems = new ArrayList<>(items);
+        for (long i = 1; i <= items; i++) {
+            orderItems.add(new OrderItemDTO(1L, i, quantity, BigDecimal.TEN));
+        }
+        return new OrderCreatedEventDTO(42L, 5L, "ORDER_CREATED", "CREATED", "c@shop.test", "Customer", "0100",
+                null, BigDecimal.TEN, orderItems, null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.fawry.kafka.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -9,19 +10,19 @@ import org.springframework.kafka.config.TopicBuilder;
 public class KafkaConfig {
 
     @Bean
-    public NewTopic StoreSagaTopic() {
+    public NewTopic StoreSagaTopic(@Value("${store.kafka.topics.store-events.partitions:2}") int partitions) {
         return TopicBuilder
                 .name("store-events")
-                .partitions(2)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
 
     @Bean
-    public NewTopic topic() {
+    public NewTopic topic(@Value("${store.kafka.topics.store-updated-events.partitions:2}") int partitions) {
         return TopicBuilder
                 .name("store-updated-events")
-                .partitions(2)
+                .partitions(partitions)
                 .replicas(1)
                 .build();
     }
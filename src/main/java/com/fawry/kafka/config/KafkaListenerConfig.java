@@ -0,0 +1,67 @@
+package com.fawry.kafka.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+import java.util.Properties;
+
+@Configuration
+public class KafkaListenerConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "store.kafka.order-events.batch.enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> orderEventsBatchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            ObjectProvider<ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>>> containerCustomizer,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            @Value("${store.kafka.order-events.batch.max-poll-records:500}") int maxPollRecords,
+            @Value("${store.kafka.order-events.batch.retries:2}") long retries,
+            @Value("${store.kafka.order-events.batch.retry-interval:1s}") Duration retryInterval
+    ) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.setBatchListener(true);
+        containerCustomizer.ifAvailable(factory::setContainerCustomizer);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(kafkaTemplate,
+                        (record, exception) -> new TopicPartition(record.topic() + ".DLT", -1)),
+                new FixedBackOff(retryInterval.toMillis(), retries)));
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        containerProperties.setKafkaConsumerProperties(consumerProperties);
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "store.kafka.listener.virtual-threads", havingValue = "true")
+    public ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> virtualThreadListenerCustomizer() {
+        return container -> {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(container.getListenerId() + "-");
+            executor.setVirtualThreads(true);
+            container.getContainerProperties().setListenerTaskExecutor(executor);
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.fawry.kafka.config;
+
+import com.fawry.kafka.serialization.SagaEventAvroCodec;
+import com.fawry.kafka.serialization.SagaEventAvroDeserializer;
+import com.fawry.kafka.serialization.SagaEventAvroSerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTopicDeserializer;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Switches the listed topics to the Avro saga-event format while every other topic keeps JSON.
+ * Producers and consumers of a topic must be switched together. The delegating wrappers do not configure
+ * their default delegate, so the JSON fallback is configured here from the factory properties.
+ */
+@Configuration
+@ConditionalOnExpression("'${store.kafka.avro.topics:}' != ''")
+public class KafkaSerializationConfig {
+
+    private final List<String> avroTopics;
+    private final SagaEventAvroCodec codec = new SagaEventAvroCodec();
+
+    public KafkaSerializationConfig(@Value("${store.kafka.avro.topics}") List<String> avroTopics) {
+        this.avroTopics = avroTopics;
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer avroTopicsProducerCustomizer() {
+        return producerFactory -> {
+            Map<Pattern, Serializer<?>> delegates = new LinkedHashMap<>();
+            avroTopics.forEach(topic -> delegates.put(topicPattern(topic), new SagaEventAvroSerializer(codec)));
+            JsonSerializer<Object> json = new JsonSerializer<>();
+            json.configure(producerFactory.getConfigurationProperties(), false);
+            ((DefaultKafkaProducerFactory<Object, Object>) producerFactory)
+                    .setValueSerializer(new DelegatingByTopicSerializer(delegates, json));
+        };
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaConsumerFactoryCustomizer avroTopicsConsumerCustomizer() {
+        return consumerFactory -> {
+            Map<Pattern, Deserializer<?>> delegates = new LinkedHashMap<>();
+            avroTopics.forEach(topic -> delegates.put(topicPattern(topic), new SagaEventAvroDeserializer(codec)));
+            JsonDeserializer<Object> json = new JsonDeserializer<>();
+            json.configure(consumerFactory.getConfigurationProperties(), false);
+            ((DefaultKafkaConsumerFactory<Object, Object>) consumerFactory)
+                    .setValueDeserializer(new DelegatingByTopicDeserializer(delegates, json));
+        };
+    }
+
+    private static Pattern topicPattern(String topic) {
+        return Pattern.compile(Pattern.quote(topic.trim()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.fawry.kafka.consumers;
+
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.store_api.service.StoreService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "store.kafka.order-events.batch.enabled", havingValue = "true")
+@Slf4j
+public class OrderEventsBatchListener {
+
+    private final StoreService storeService;
+    private final TransactionTemplate transactionTemplate;
+    private final int groupSize;
+
+    public OrderEventsBatchListener(StoreService storeService,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${store.kafka.order-events.batch.group-size:50}") int groupSize) {
+        this.storeService = storeService;
+        this.transactionTemplate = transactionTemplate;
+        this.groupSize = groupSize;
+    }
+
+    /**
+     * Reserves a poll's worth of orders in transactions of up to {@code groupSize} orders.
+     * Rejections for missing stock commit with the group; any other failure rolls the whole group
+     * back, since on Postgres a failed statement aborts the shared transaction, and its orders are
+     * replayed one transaction each so a single bad order does not hold back the rest. An order that
+     * still fails on its own is handed to the container's error handler with its index: the orders
+     * before it are committed, and it is retried and then dead-lettered instead of being skipped.
+     */
+    @KafkaListener(topics = "order-events", groupId = "store_order_id",
+            concurrency = "${store.kafka.order-events.concurrency:3}",
+            containerFactory = "orderEventsBatchListenerContainerFactory")
+    public void reserveStores(List<OrderCreatedEventDTO> orders) {
+        log.info("Consume {} order created events", orders.size());
+
+        for (int from = 0; from < orders.size(); from += groupSize) {
+            List<OrderCreatedEventDTO> group = orders.subList(from, Math.min(from + groupSize, orders.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> group.forEach(storeService::reserveStore));
+            } catch (Exception e) {
+                log.warn("Failed to reserve group of {} orders, retrying individually. Error: {}",
+                        group.size(), e.getMessage());
+                for (int i = 0; i < group.size(); i++) {
+                    reserveIsolated(group.get(i), from + i);
+                }
+            }
+        }
+    }
+
+    private void reserveIsolated(OrderCreatedEventDTO order, int index) {
+        try {
+            storeService.reserveStore(order);
+        } catch (Exception e) {
+            log.error("Failed to reserve stock for orderId: {}. Error: {}", order.getOrderId(), e.getMessage());
+            throw new BatchListenerFailedException("Failed to reserve stock for order " + order.getOrderId(), e, index);
+        }
+    }
+}
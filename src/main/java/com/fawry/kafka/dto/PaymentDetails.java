@@ -7,7 +7,7 @@ import lombok.*;
 @Setter
 @Getter
 @ToString
-class PaymentDetails {
+public class PaymentDetails {
     private String number;
     private String cvv;
     private String expiry;
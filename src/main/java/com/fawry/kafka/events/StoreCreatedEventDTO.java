@@ -1,14 +1,14 @@
 package com.fawry.kafka.events;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fawry.kafka.dto.AddressDetails;
 import com.fawry.kafka.dto.PaymentMethod;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 
-@RequiredArgsConstructor
 @Getter
 public class StoreCreatedEventDTO implements Serializable {
     private final Long orderId;
@@ -22,6 +22,29 @@ public class StoreCreatedEventDTO implements Serializable {
     private final PaymentMethod paymentMethod;
     private final String merchantEmail;
 
+    @JsonCreator
+    public StoreCreatedEventDTO(@JsonProperty("orderId") Long orderId,
+                                @JsonProperty("userId") Long userId,
+                                @JsonProperty("status") String status,
+                                @JsonProperty("customerEmail") String customerEmail,
+                                @JsonProperty("customerName") String customerName,
+                                @JsonProperty("customerContact") String customerContact,
+                                @JsonProperty("addressDetails") AddressDetails addressDetails,
+                                @JsonProperty("paymentAmount") BigDecimal paymentAmount,
+                                @JsonProperty("paymentMethod") PaymentMethod paymentMethod,
+                                @JsonProperty("merchantEmail") String merchantEmail) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.status = status;
+        this.customerEmail = customerEmail;
+        this.customerName = customerName;
+        this.customerContact = customerContact;
+        this.addressDetails = addressDetails;
+        this.paymentAmount = paymentAmount;
+        this.paymentMethod = paymentMethod;
+        this.merchantEmail = merchantEmail;
+    }
+
     public static StoreCreatedEventDTO newInstance(Long orderId,
                                                    Long userId,
                                                    String status,
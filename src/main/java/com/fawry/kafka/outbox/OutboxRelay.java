@@ -0,0 +1,193 @@
+package com.fawry.kafka.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fawry.store_api.entity.OutboxEvent;
+import com.fawry.store_api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final long RELAY_LOCK_KEY = 0x53544F52454F5554L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${store.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${store.outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    /**
+     * Drains the outbox in batches until it is empty, then waits {@code linger-ms} before looking again.
+     * A transaction-scoped advisory lock keeps a single relay draining at a time. Rows are sent in id
+     * order, and ids are assigned at insert rather than at commit, so events of concurrent transactions
+     * may leave in a different order than they committed. Events sharing a key are written by
+     * transactions that run one after another, so those do leave in the order they were written.
+     */
+    @Scheduled(fixedDelayString = "${store.outbox.relay.linger-ms:200}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayNextBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    /**
+     * Sends the batch and waits for the acks against one deadline for the whole batch, started before the
+     * sends because {@code send} itself may block for up to {@code max.block.ms}, so a slow broker holds
+     * the transaction and its connection for about {@code send-timeout-ms}. Acked events are deleted.
+     * Events that failed with a retriable error, or were not acked in time, stay for the next pass, and
+     * so do the later events with the same key even if they were acked: they are sent again after the
+     * retried event, so consumers end on the newest one. Events the broker rejected for good are moved to
+     * {@code store_outbox_dead_letter}.
+     */
+    private int relayNextBatch() {
+        if (!outboxEventRepository.tryLockRelay(RELAY_LOCK_KEY)) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<CompletableFuture<SendResult<String, Object>>> sends = events.stream()
+                .map(this::send)
+                .toList();
+
+        List<Long> done = new ArrayList<>(events.size());
+        Set<String> blockedKeys = new HashSet<>();
+        int deadLettered = 0;
+        int timedOut = 0;
+        int heldBack = 0;
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            String key = orderingKey(event);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (key != null && blockedKeys.contains(key)) {
+                    heldBack++;
+                } else {
+                    done.add(event.getId());
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RetriableException) {
+                    log.warn("Outbox event {} to {} will be retried: {}", event.getId(), event.getTopic(), e.getCause().getMessage());
+                    block(blockedKeys, key);
+                } else {
+                    log.error("Moving outbox event {} to {} to the dead-letter table: {}",
+                            event.getId(), event.getTopic(), e.getCause().getMessage(), e.getCause());
+                    outboxEventRepository.copyToDeadLetter(event.getId(), String.valueOf(e.getCause()));
+                    meterRegistry.counter("store.outbox.dead.letter", "topic", event.getTopic()).increment();
+                    done.add(event.getId());
+                    deadLettered++;
+                }
+            } catch (TimeoutException e) {
+                timedOut++;
+                block(blockedKeys, key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(done);
+        if (timedOut > 0) {
+            log.warn("{} of {} outbox events were not acknowledged within {} ms and will be retried",
+                    timedOut, events.size(), sendTimeoutMs);
+        }
+        if (heldBack > 0) {
+            log.warn("{} acknowledged outbox events are kept and will be sent again after an earlier event with their key",
+                    heldBack);
+        }
+        log.debug("Relayed {} of {} outbox events, {} dead-lettered", done.size() - deadLettered, events.size(), deadLettered);
+        return done.size();
+    }
+
+    /**
+     * Events without a key carry no ordering promise, so only keyed events hold back the ones behind them.
+     */
+    private static String orderingKey(OutboxEvent event) {
+        return event.getMessageKey() == null ? null : event.getTopic() + "/" + event.getMessageKey();
+    }
+
+    private static void block(Set<String> blockedKeys, String key) {
+        if (key != null) {
+            blockedKeys.add(key);
+        }
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent event) {
+        try {
+            Object payload = objectMapper.readValue(event.getPayload(), Class.forName(event.getEventType()));
+            long start = System.nanoTime();
+            return kafkaTemplate.send(new ProducerRecord<>(
+                            event.getTopic(), event.getPartition(), event.getMessageKey(), payload))
+                    .whenComplete((result, error) -> recordPublish(event, System.nanoTime() - start, error));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * {@code store.kafka.publish} is the producer round trip up to the broker ack; {@code store.outbox.delay}
+     * adds the time the event waited in the outbox, i.e. how late consumers see it after the commit.
+     */
+    private void recordPublish(OutboxEvent event, long publishNanos, Throwable error) {
+        Timer.builder("store.kafka.publish")
+                .description("Time from handing an outbox event to the producer until the broker acknowledges it")
+                .tag("topic", event.getTopic())
+                .tag("outcome", error == null ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofNanos(publishNanos));
+        if (error == null && event.getCreatedAt() != null) {
+            Timer.builder("store.outbox.delay")
+                    .description("Time from writing an outbox event until the broker acknowledges it")
+                    .tag("topic", event.getTopic())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Duration.between(event.getCreatedAt(), Instant.now()));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fawry.kafka.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fawry.store_api.entity.OutboxEvent;
+import com.fawry.store_api.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores the event in the caller's transaction; {@link OutboxRelay} sends it to Kafka after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, Integer partition, String key, Object event) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .topic(topic)
+                    .partition(partition)
+                    .messageKey(key)
+                    .eventType(event.getClass().getName())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + event.getClass().getSimpleName() + " for topic " + topic, e);
+        }
+    }
+}
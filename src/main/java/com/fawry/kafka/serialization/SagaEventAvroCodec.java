@@ -0,0 +1,323 @@
+package com.fawry.kafka.serialization;
+
+import com.fawry.kafka.dto.AddressDetails;
+import com.fawry.kafka.dto.OrderItemDTO;
+import com.fawry.kafka.dto.PaymentDetails;
+import com.fawry.kafka.dto.PaymentMethod;
+import com.fawry.kafka.events.OrderCanceledEventDTO;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.kafka.events.StoreCreatedEventDTO;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maps the saga events to and from Avro binary using the local schema in {@code avro/saga-events.avsc}.
+ * <p>
+ * Wire format: one magic byte, one byte naming the event type, then the Avro body. The type byte lets
+ * a single topic carry several event types without Kafka headers or a schema registry.
+ */
+public final class SagaEventAvroCodec {
+
+    static final byte MAGIC_BYTE = 0x5A;
+
+    private static final byte ORDER_CREATED = 1;
+    private static final byte STORE_CREATED = 2;
+    private static final byte ORDER_CANCELED = 3;
+
+    private static final String NAMESPACE = "com.fawry.kafka.avro.";
+
+    private final Schema decimalSchema;
+    private final Schema addressSchema;
+    private final Schema paymentMethodSchema;
+    private final Schema paymentDetailsSchema;
+    private final Schema orderItemSchema;
+    private final Schema orderCreatedSchema;
+    private final Schema storeCreatedSchema;
+    private final Schema orderCanceledSchema;
+
+    private final GenericDatumWriter<GenericRecord> orderCreatedWriter;
+    private final GenericDatumWriter<GenericRecord> storeCreatedWriter;
+    private final GenericDatumWriter<GenericRecord> orderCanceledWriter;
+    private final GenericDatumReader<GenericRecord> orderCreatedReader;
+    private final GenericDatumReader<GenericRecord> storeCreatedReader;
+    private final GenericDatumReader<GenericRecord> orderCanceledReader;
+
+    public SagaEventAvroCodec() {
+        Schema events = loadSchema();
+        this.decimalSchema = events.getTypes().get(events.getIndexNamed(NAMESPACE + "Decimal"));
+        this.addressSchema = events.getTypes().get(events.getIndexNamed(NAMESPACE + "AddressDetails"));
+        this.paymentMethodSchema = events.getTypes().get(events.getIndexNamed(NAMESPACE + "PaymentMethod"));
+        this.paymentDetailsSchema = nonNull(paymentMethodSchema.getField("details").schema());
+        this.orderItemSchema = events.getTypes().get(events.getIndexNamed(NAMESPACE + "OrderItem"));
+        this.orderCreatedSchema = events.getTypes().get(events.getIndexNamed(NAMESPACE + "OrderCreatedEvent"));
+        this.storeCreatedSchema = events.getTypes().get(events.getIndexNamed(NAMESPACE + "StoreCreatedEvent"));
+        this.orderCanceledSchema = events.getTypes().get(events.getIndexNamed(NAMESPACE + "OrderCanceledEvent"));
+
+        this.orderCreatedWriter = new GenericDatumWriter<>(orderCreatedSchema);
+        this.storeCreatedWriter = new GenericDatumWriter<>(storeCreatedSchema);
+        this.orderCanceledWriter = new GenericDatumWriter<>(orderCanceledSchema);
+        this.orderCreatedReader = new GenericDatumReader<>(orderCreatedSchema);
+        this.storeCreatedReader = new GenericDatumReader<>(storeCreatedSchema);
+        this.orderCanceledReader = new GenericDatumReader<>(orderCanceledSchema);
+    }
+
+    public byte[] encode(Object event) {
+        return switch (event) {
+            case OrderCreatedEventDTO orderCreated -> write(ORDER_CREATED, orderCreatedWriter, toRecord(orderCreated));
+            case StoreCreatedEventDTO storeCreated -> write(STORE_CREATED, storeCreatedWriter, toRecord(storeCreated));
+            case OrderCanceledEventDTO orderCanceled -> write(ORDER_CANCELED, orderCanceledWriter, toRecord(orderCanceled));
+            default -> throw new SerializationException("No Avro schema for " + event.getClass().getName());
+        };
+    }
+
+    public Object decode(byte[] data) {
+        if (data.length < 2 || data[0] != MAGIC_BYTE) {
+            throw new SerializationException("Not an Avro saga event, unknown magic byte");
+        }
+
+        return switch (data[1]) {
+            case ORDER_CREATED -> toOrderCreated(read(orderCreatedReader, data));
+            case STORE_CREATED -> toStoreCreated(read(storeCreatedReader, data));
+            case ORDER_CANCELED -> toOrderCanceled(read(orderCanceledReader, data));
+            default -> throw new SerializationException("Unknown saga event type " + data[1]);
+        };
+    }
+
+    private GenericRecord toRecord(OrderCreatedEventDTO event) {
+        GenericRecord record = new GenericData.Record(orderCreatedSchema);
+        record.put("orderId", event.getOrderId());
+        record.put("userId", event.getUserId());
+        record.put("sagaEventType", event.getSagaEventType());
+        record.put("status", event.getStatus());
+        record.put("customerEmail", event.getCustomerEmail());
+        record.put("customerName", event.getCustomerName());
+        record.put("customerContact", event.getCustomerContact());
+        record.put("addressDetails", toRecord(event.getAddressDetails()));
+        record.put("paymentAmount", toRecord(event.getPaymentAmount()));
+        record.put("orderItems", toRecords(event.getOrderItems()));
+        record.put("paymentMethod", toRecord(event.getPaymentMethod()));
+        return record;
+    }
+
+    private GenericRecord toRecord(StoreCreatedEventDTO event) {
+        GenericRecord record = new GenericData.Record(storeCreatedSchema);
+        record.put("orderId", event.getOrderId());
+        record.put("userId", event.getUserId());
+        record.put("status", event.getStatus());
+        record.put("customerEmail", event.getCustomerEmail());
+        record.put("customerName", event.getCustomerName());
+        record.put("customerContact", event.getCustomerContact());
+        record.put("addressDetails", toRecord(event.getAddressDetails()));
+        record.put("paymentAmount", toRecord(event.getPaymentAmount()));
+        record.put("paymentMethod", toRecord(event.getPaymentMethod()));
+        record.put("merchantEmail", event.getMerchantEmail());
+        return record;
+    }
+
+    private GenericRecord toRecord(OrderCanceledEventDTO event) {
+        GenericRecord record = new GenericData.Record(orderCanceledSchema);
+        record.put("orderId", event.getOrderId());
+        record.put("reason", event.getReason());
+        record.put("customerEmail", event.getCustomerEmail());
+        return record;
+    }
+
+    private GenericRecord toRecord(AddressDetails address) {
+        if (address == null) {
+            return null;
+        }
+        GenericRecord record = new GenericData.Record(addressSchema);
+        record.put("governorate", address.getGovernorate());
+        record.put("city", address.getCity());
+        record.put("address", address.getAddress());
+        return record;
+    }
+
+    private GenericRecord toRecord(PaymentMethod paymentMethod) {
+        if (paymentMethod == null) {
+            return null;
+        }
+        GenericRecord record = new GenericData.Record(paymentMethodSchema);
+        PaymentDetails details = paymentMethod.details();
+        if (details != null) {
+            GenericRecord detailsRecord = new GenericData.Record(paymentDetailsSchema);
+            detailsRecord.put("number", details.getNumber());
+            detailsRecord.put("cvv", details.getCvv());
+            detailsRecord.put("expiry", details.getExpiry());
+            record.put("details", detailsRecord);
+        }
+        return record;
+    }
+
+    private GenericRecord toRecord(BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+        GenericRecord record = new GenericData.Record(decimalSchema);
+        record.put("unscaled", ByteBuffer.wrap(value.unscaledValue().toByteArray()));
+        record.put("scale", value.scale());
+        return record;
+    }
+
+    private List<GenericRecord> toRecords(List<OrderItemDTO> orderItems) {
+        if (orderItems == null) {
+            return null;
+        }
+        List<GenericRecord> records = new ArrayList<>(orderItems.size());
+        for (OrderItemDTO orderItem : orderItems) {
+            GenericRecord record = new GenericData.Record(orderItemSchema);
+            record.put("storeId", orderItem.getStoreId());
+            record.put("productId", orderItem.getProductId());
+            record.put("quantity", orderItem.getQuantity());
+            record.put("price", toRecord(orderItem.getPrice()));
+            records.add(record);
+        }
+        return records;
+    }
+
+    private OrderCreatedEventDTO toOrderCreated(GenericRecord record) {
+        return new OrderCreatedEventDTO(
+                (Long) record.get("orderId"),
+                (Long) record.get("userId"),
+                string(record, "sagaEventType"),
+                string(record, "status"),
+                string(record, "customerEmail"),
+                string(record, "customerName"),
+                string(record, "customerContact"),
+                toAddress((GenericRecord) record.get("addressDetails")),
+                toDecimal((GenericRecord) record.get("paymentAmount")),
+                toOrderItems((List<?>) record.get("orderItems")),
+                toPaymentMethod((GenericRecord) record.get("paymentMethod"))
+        );
+    }
+
+    private StoreCreatedEventDTO toStoreCreated(GenericRecord record) {
+        return new StoreCreatedEventDTO(
+                (Long) record.get("orderId"),
+                (Long) record.get("userId"),
+                string(record, "status"),
+                string(record, "customerEmail"),
+                string(record, "customerName"),
+                string(record, "customerContact"),
+                toAddress((GenericRecord) record.get("addressDetails")),
+                toDecimal((GenericRecord) record.get("paymentAmount")),
+                toPaymentMethod((GenericRecord) record.get("paymentMethod")),
+                string(record, "merchantEmail")
+        );
+    }
+
+    private OrderCanceledEventDTO toOrderCanceled(GenericRecord record) {
+        return OrderCanceledEventDTO.newInstance(
+                (Long) record.get("orderId"),
+                string(record, "reason"),
+                string(record, "customerEmail")
+        );
+    }
+
+    private AddressDetails toAddress(GenericRecord record) {
+        if (record == null) {
+            return null;
+        }
+        return new AddressDetails(string(record, "governorate"), string(record, "city"), string(record, "address"));
+    }
+
+    private PaymentMethod toPaymentMethod(GenericRecord record) {
+        if (record == null) {
+            return null;
+        }
+        GenericRecord details = (GenericRecord) record.get("details");
+        return new PaymentMethod(details == null ? null
+                : new PaymentDetails(string(details, "number"), string(details, "cvv"), string(details, "expiry")));
+    }
+
+    private BigDecimal toDecimal(GenericRecord record) {
+        if (record == null) {
+            return null;
+        }
+        ByteBuffer unscaled = (ByteBuffer) record.get("unscaled");
+        byte[] bytes = new byte[unscaled.remaining()];
+        unscaled.duplicate().get(bytes);
+        return new BigDecimal(new BigInteger(bytes), (Integer) record.get("scale"));
+    }
+
+    private List<OrderItemDTO> toOrderItems(List<?> records) {
+        if (records == null) {
+            return null;
+        }
+        List<OrderItemDTO> orderItems = new ArrayList<>(records.size());
+        for (Object item : records) {
+            GenericRecord record = (GenericRecord) item;
+            orderItems.add(new OrderItemDTO(
+                    (Long) record.get("storeId"),
+                    (Long) record.get("productId"),
+                    (Integer) record.get("quantity"),
+                    toDecimal((GenericRecord) record.get("price"))
+            ));
+        }
+        return orderItems;
+    }
+
+    private static String string(GenericRecord record, String field) {
+        return Objects.toString(record.get(field), null);
+    }
+
+    private static byte[] write(byte type, GenericDatumWriter<GenericRecord> writer, GenericRecord record) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(MAGIC_BYTE);
+        out.write(type);
+        try {
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writer.write(record, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to write " + record.getSchema().getName(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private static GenericRecord read(GenericDatumReader<GenericRecord> reader, byte[] data) {
+        try {
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, 2, data.length - 2, null);
+            return reader.read(null, decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to read " + reader.getSchema().getName(), e);
+        }
+    }
+
+    private static Schema nonNull(Schema union) {
+        return union.getTypes().stream()
+                .filter(type -> type.getType() != Schema.Type.NULL)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Schema loadSchema() {
+        try (InputStream in = SagaEventAvroCodec.class.getResourceAsStream("/avro/saga-events.avsc")) {
+            if (in == null) {
+                throw new IllegalStateException("avro/saga-events.avsc is missing from the classpath");
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
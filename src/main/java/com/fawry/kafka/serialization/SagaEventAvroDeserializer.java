@@ -0,0 +1,21 @@
+package com.fawry.kafka.serialization;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class SagaEventAvroDeserializer implements Deserializer<Object> {
+
+    private final SagaEventAvroCodec codec;
+
+    public SagaEventAvroDeserializer() {
+        this(new SagaEventAvroCodec());
+    }
+
+    public SagaEventAvroDeserializer(SagaEventAvroCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return data == null ? null : codec.decode(data);
+    }
+}
@@ -0,0 +1,21 @@
+package com.fawry.kafka.serialization;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+public class SagaEventAvroSerializer implements Serializer<Object> {
+
+    private final SagaEventAvroCodec codec;
+
+    public SagaEventAvroSerializer() {
+        this(new SagaEventAvroCodec());
+    }
+
+    public SagaEventAvroSerializer(SagaEventAvroCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : codec.encode(data);
+    }
+}
@@ -0,0 +1,82 @@
+package com.fawry.store_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "store.datasource.bulkhead.enabled", havingValue = "true")
+public class DataSourceBulkheadConfig {
+
+    /**
+     * A {@code max-concurrent} of 0 sizes the bulkhead to the Hikari pool, so callers wait on the semaphore
+     * rather than inside the pool.
+     */
+    @Bean
+    public static BeanPostProcessor connectionBulkheadDataSourcePostProcessor(
+            @Value("${store.datasource.bulkhead.max-concurrent:0}") int maxConcurrent,
+            @Value("${store.datasource.bulkhead.max-waiting:500}") int maxWaiting,
+            @Value("${store.datasource.bulkhead.acquire-timeout:10s}") Duration acquireTimeout
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionBulkheadDataSource) {
+                    return bean;
+                }
+                int permits = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource);
+                return new ConnectionBulkheadDataSource(dataSource, permits, maxWaiting, acquireTimeout);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionBulkheadDataSource bulkhead = unwrap(dataSource);
+            if (bulkhead == null) {
+                return;
+            }
+            Gauge.builder("store.datasource.bulkhead.available", bulkhead, ConnectionBulkheadDataSource::getAvailablePermits)
+                    .description("Connection permits not currently held")
+                    .register(registry);
+            Gauge.builder("store.datasource.bulkhead.waiting", bulkhead, ConnectionBulkheadDataSource::getWaiting)
+                    .description("Threads parked waiting for a connection permit")
+                    .register(registry);
+            FunctionCounter.builder("store.datasource.bulkhead.rejected", bulkhead, ConnectionBulkheadDataSource::getRejected)
+                    .description("Connection requests rejected because the bulkhead was full or timed out")
+                    .register(registry);
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // not a Hikari pool, use Hikari's default size below
+        }
+        return 10;
+    }
+
+    private static ConnectionBulkheadDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConnectionBulkheadDataSource.class)
+                    ? dataSource.unwrap(ConnectionBulkheadDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.fawry.store_api.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productApiConnectionProvider(
+            @Value("${product.api.pool.max-connections:50}") int maxConnections,
+            @Value("${product.api.pool.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${product.api.pool.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${product.api.pool.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${product.api.pool.max-life-time:5m}") Duration maxLifeTime
+    ) {
+        return ConnectionProvider.builder("product-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .lifo()
+                .build();
+    }
+
+    /**
+     * Built from Boot's builder so calls are observed as {@code http.client.requests}.
+     */
+    @Bean
+    public WebClient productWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider productApiConnectionProvider,
+            @Value("${product.api.base-url:http://localhost:6061}") String productApiBaseUrl,
+            @Value("${product.api.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${product.api.response-timeout:3s}") Duration responseTimeout
+    ) {
+        HttpClient httpClient = HttpClient.create(productApiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout)
+                .compress(true);
+
+        return webClientBuilder
+                .baseUrl(productApiBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -1,13 +1,23 @@
 package com.fawry.store_api.controller;
 
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.ProductConsumptionDTO;
+import com.fawry.store_api.enums.ExportFormat;
+import com.fawry.store_api.monitoring.SqlStatementBudget;
 import com.fawry.store_api.service.ProductConsumptionService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -16,6 +26,7 @@ import java.util.List;
 public class ProductConsumptionController {
     private final ProductConsumptionService consumptionService;
 
+    @SqlStatementBudget(6)
     @PostMapping
     public ResponseEntity<ProductConsumptionDTO> createProductConsumption(
             @Valid @RequestBody ProductConsumptionDTO consumptionDTO
@@ -24,6 +35,7 @@ public class ProductConsumptionController {
         return new ResponseEntity<>(createdConsumption, HttpStatus.CREATED);
     }
 
+    @SqlStatementBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<ProductConsumptionDTO> getProductConsumptionById(
             @PathVariable Long id
@@ -32,6 +44,7 @@ public class ProductConsumptionController {
         return ResponseEntity.ok(consumption);
     }
 
+    @SqlStatementBudget(2)
     @GetMapping("/store/{storeId}")
     public ResponseEntity<List<ProductConsumptionDTO>> getProductConsumptionsByStoreId(
             @PathVariable Long storeId
@@ -40,6 +53,39 @@ public class ProductConsumptionController {
         return ResponseEntity.ok(consumptions);
     }
 
+    @SqlStatementBudget(2)
+    @GetMapping(value = "/store/{storeId}", params = "limit")
+    public ResponseEntity<CursorPageDTO<ProductConsumptionDTO>> getProductConsumptionPageByStoreId(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) String after,
+            @RequestParam int limit
+    ) {
+        CursorPageDTO<ProductConsumptionDTO> consumptions = consumptionService.getProductConsumptionsByStoreId(storeId, after, limit);
+        return ResponseEntity.ok(consumptions);
+    }
+
+    @SqlStatementBudget(2)
+    @GetMapping("/store/{storeId}/export")
+    public void exportProductConsumptions(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        consumptionService.exportProductConsumptions(storeId, from, to, exportFormat, () -> {
+            response.setContentType(exportFormat.getMediaType().toString());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("consumptions-store-" + storeId + "." + exportFormat.name().toLowerCase())
+                    .build()
+                    .toString());
+            return response.getOutputStream();
+        });
+    }
+
+    @SqlStatementBudget(4)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProductConsumption(
             @PathVariable Long id
@@ -0,0 +1,53 @@
+package com.fawry.store_api.controller;
+
+import com.fawry.store_api.dto.ProductConsumptionDailyDTO;
+import com.fawry.store_api.dto.ProductConsumptionTotalsDTO;
+import com.fawry.store_api.monitoring.SqlStatementBudget;
+import com.fawry.store_api.service.ProductConsumptionRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/consumptions/rollups")
+@RequiredArgsConstructor
+public class ProductConsumptionRollupController {
+    private final ProductConsumptionRollupService rollupService;
+
+    @SqlStatementBudget(1)
+    @GetMapping("/store/{storeId}/daily")
+    public ResponseEntity<List<ProductConsumptionDailyDTO>> getDailyRollups(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        List<ProductConsumptionDailyDTO> rollups = rollupService.getDailyRollups(storeId, productId, from, to);
+        return ResponseEntity.ok(rollups);
+    }
+
+    @SqlStatementBudget(1)
+    @GetMapping("/store/{storeId}/totals")
+    public ResponseEntity<List<ProductConsumptionTotalsDTO>> getTotals(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        List<ProductConsumptionTotalsDTO> totals = rollupService.getTotals(storeId, productId, from, to);
+        return ResponseEntity.ok(totals);
+    }
+
+    @SqlStatementBudget(3)
+    @PostMapping("/store/{storeId}/rebuild")
+    public ResponseEntity<Integer> rebuildRollups(
+            @PathVariable Long storeId
+    ) {
+        int days = rollupService.rebuildRollups(storeId);
+        return ResponseEntity.ok(days);
+    }
+}
@@ -1,13 +1,22 @@
 package com.fawry.store_api.controller;
 
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.StockDTO;
+import com.fawry.store_api.dto.StockImportReportDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateResultDTO;
+import com.fawry.store_api.enums.ImportFormat;
+import com.fawry.store_api.monitoring.SqlStatementBudget;
+import com.fawry.store_api.service.StockImportService;
 import com.fawry.store_api.service.StockService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -15,7 +24,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StockController {
     private final StockService stockService;
+    private final StockImportService stockImportService;
 
+    @SqlStatementBudget(4)
     @PostMapping
     public ResponseEntity<StockDTO> createStock(
             @Valid @RequestBody StockDTO stockDTO
@@ -24,6 +35,17 @@ public class StockController {
         return new ResponseEntity<>(createdStock, HttpStatus.CREATED);
     }
 
+    @SqlStatementBudget(6)
+    @PostMapping("/import")
+    public ResponseEntity<StockImportReportDTO> importStock(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request
+    ) throws IOException {
+        StockImportReportDTO report = stockImportService.importStock(ImportFormat.from(format), request.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+
+    @SqlStatementBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<StockDTO> getStockById(
             @PathVariable Long id
@@ -32,6 +54,7 @@ public class StockController {
         return ResponseEntity.ok(stock);
     }
 
+    @SqlStatementBudget(2)
     @GetMapping("/store/{storeId}")
     public ResponseEntity<List<StockDTO>> getStockByStoreId(
             @PathVariable Long storeId
@@ -40,6 +63,18 @@ public class StockController {
         return ResponseEntity.ok(stocks);
     }
 
+    @SqlStatementBudget(2)
+    @GetMapping(value = "/store/{storeId}", params = "limit")
+    public ResponseEntity<CursorPageDTO<StockDTO>> getStockPageByStoreId(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) String after,
+            @RequestParam int limit
+    ) {
+        CursorPageDTO<StockDTO> stocks = stockService.getStockByStoreId(storeId, after, limit);
+        return ResponseEntity.ok(stocks);
+    }
+
+    @SqlStatementBudget(3)
     @PutMapping
     public ResponseEntity<StockDTO> updateStock(
             @Valid @RequestBody StockDTO stockDTO
@@ -48,6 +83,7 @@ public class StockController {
         return ResponseEntity.ok(updatedStock);
     }
 
+    @SqlStatementBudget(3)
     @PutMapping("/update-quantity")
     public ResponseEntity<StockDTO> updateStockQuantity(
             @RequestParam Long storeId,
@@ -58,6 +94,16 @@ public class StockController {
         return ResponseEntity.ok(updatedStock);
     }
 
+    @SqlStatementBudget(3)
+    @PutMapping("/update-quantities")
+    public ResponseEntity<StockQuantityUpdateResultDTO> updateStockQuantities(
+            @RequestBody List<StockQuantityUpdateDTO> updates
+    ) {
+        StockQuantityUpdateResultDTO result = stockService.updateStockQuantities(updates);
+        return ResponseEntity.ok(result);
+    }
+
+    @SqlStatementBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteStock(
             @PathVariable Long id
@@ -1,8 +1,10 @@
 package com.fawry.store_api.controller;
 
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.ProductResponseDTO;
 import com.fawry.store_api.dto.StoreDTO;
 import com.fawry.store_api.exception.EntityNotFoundException;
+import com.fawry.store_api.monitoring.SqlStatementBudget;
 import com.fawry.store_api.service.StoreService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,7 @@ import java.util.List;
 public class StoreController {
     private final StoreService storeService;
 
+    @SqlStatementBudget(2)
     @PostMapping
     public ResponseEntity<StoreDTO> createStore(
             @Valid @RequestBody StoreDTO storeDTO
@@ -27,6 +30,7 @@ public class StoreController {
         return new ResponseEntity<>(createdStore, HttpStatus.CREATED);
     }
 
+    @SqlStatementBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<StoreDTO> getStoreById(
             @PathVariable Long id
@@ -35,6 +39,7 @@ public class StoreController {
         return ResponseEntity.ok(store);
     }
 
+    @SqlStatementBudget(1)
     @GetMapping
     public ResponseEntity<List<StoreDTO>> getAllStores() {
         List<StoreDTO> stores = storeService.getAllStores();
@@ -42,6 +47,7 @@ public class StoreController {
     }
 
 
+    @SqlStatementBudget(3)
     @GetMapping("/{storeId}/products")
     public ResponseEntity<Page<ProductResponseDTO>> getStoreProducts(@PathVariable Long storeId,
                                                                      @RequestParam(defaultValue = "0") int page,
@@ -57,6 +63,19 @@ public class StoreController {
     }
 
 
+    @SqlStatementBudget(2)
+    @GetMapping(value = "/{storeId}/products", params = "limit")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> getStoreProductPage(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) String after,
+            @RequestParam int limit
+    ) {
+        CursorPageDTO<ProductResponseDTO> products = storeService.getStoreProducts(storeId, after, limit);
+        return ResponseEntity.ok(products);
+    }
+
+
+    @SqlStatementBudget(2)
     @PutMapping
     public ResponseEntity<StoreDTO> updateStore(
             @Valid @RequestBody StoreDTO storeDTO
@@ -65,6 +84,7 @@ public class StoreController {
         return ResponseEntity.ok(updatedStore);
     }
 
+    @SqlStatementBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteStore(
             @PathVariable Long id
@@ -0,0 +1,59 @@
+package com.fawry.store_api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token for the {@code after}
+ * parameter of the next request and is null on the last page; no total count is computed.
+ */
+public record CursorPageDTO<T>(
+        List<T> items,
+        String nextCursor
+) {
+    public static final int MAX_LIMIT = 500;
+
+    private static final String CURSOR_PREFIX = "k1:";
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}; the extra row only signals that more follow.
+     */
+    public static <E, T> CursorPageDTO<T> of(List<E> rows, int limit,
+                                             Function<E, Long> keyOf,
+                                             Function<List<E>, List<T>> mapper) {
+        if (rows.size() <= limit) {
+            return new CursorPageDTO<>(mapper.apply(rows), null);
+        }
+        List<E> page = rows.subList(0, limit);
+        return new CursorPageDTO<>(mapper.apply(page), encodeCursor(keyOf.apply(page.getLast())));
+    }
+
+    public static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    static String encodeCursor(Long key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + key).getBytes(StandardCharsets.UTF_8));
+    }
+}
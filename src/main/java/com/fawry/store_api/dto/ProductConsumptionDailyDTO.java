@@ -0,0 +1,13 @@
+package com.fawry.store_api.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ProductConsumptionDailyDTO(
+        Long storeId,
+        Long productId,
+        LocalDate day,
+        Long totalQuantity,
+        BigDecimal totalRevenue,
+        Long consumptionCount
+) {}
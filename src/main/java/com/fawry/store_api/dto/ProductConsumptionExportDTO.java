@@ -0,0 +1,34 @@
+package com.fawry.store_api.dto;
+
+import com.fawry.store_api.entity.ProductConsumption;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record ProductConsumptionExportDTO(
+        Long consumptionId,
+        Long storeId,
+        Long productId,
+        Integer consumptionQuantity,
+        BigDecimal productPrice,
+        Instant consumptionDate
+) {
+    public static final String CSV_HEADER = "consumptionId,storeId,productId,consumptionQuantity,productPrice,consumptionDate";
+
+    public static ProductConsumptionExportDTO from(ProductConsumption consumption) {
+        return new ProductConsumptionExportDTO(
+                consumption.getConsumptionId(),
+                consumption.getStore().getId(),
+                consumption.getProductId(),
+                consumption.getConsumptionQuantity(),
+                consumption.getProductPrice(),
+                consumption.getConsumptionDate()
+        );
+    }
+
+    public String toCsvLine() {
+        return consumptionId + "," + storeId + "," + productId + "," + consumptionQuantity + ","
+                + (productPrice == null ? "" : productPrice.toPlainString()) + ","
+                + (consumptionDate == null ? "" : consumptionDate.toString());
+    }
+}
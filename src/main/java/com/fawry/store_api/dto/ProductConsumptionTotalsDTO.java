@@ -0,0 +1,11 @@
+package com.fawry.store_api.dto;
+
+import java.math.BigDecimal;
+
+public record ProductConsumptionTotalsDTO(
+        Long storeId,
+        Long productId,
+        Long totalQuantity,
+        BigDecimal totalRevenue,
+        Long consumptionCount
+) {}
@@ -0,0 +1,7 @@
+package com.fawry.store_api.dto;
+
+public record StockAdjustmentDTO(
+        Long storeId,
+        Long productId,
+        Integer quantity
+) {}
@@ -0,0 +1,6 @@
+package com.fawry.store_api.dto;
+
+public record StockImportErrorDTO(
+        long line,
+        String message
+) {}
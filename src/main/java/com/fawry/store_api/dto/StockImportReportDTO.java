@@ -0,0 +1,14 @@
+package com.fawry.store_api.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk stock import. {@code errors} holds the first rejected rows only; {@code errorCount}
+ * is the total number of rejected rows.
+ */
+public record StockImportReportDTO(
+        long rowsRead,
+        long rowsImported,
+        long errorCount,
+        List<StockImportErrorDTO> errors
+) {}
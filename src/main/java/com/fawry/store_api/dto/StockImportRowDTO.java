@@ -0,0 +1,8 @@
+package com.fawry.store_api.dto;
+
+public record StockImportRowDTO(
+        long line,
+        Long storeId,
+        Long productId,
+        Integer quantity
+) {}
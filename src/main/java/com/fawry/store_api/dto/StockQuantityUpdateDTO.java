@@ -0,0 +1,18 @@
+package com.fawry.store_api.dto;
+
+import com.fawry.store_api.enums.StockQuantityUpdateMode;
+
+/**
+ * One line of a batch quantity update. With {@code DELTA} the quantity is added to the current stock
+ * (negative values take stock away); otherwise it replaces it. A missing mode means {@code ABSOLUTE}.
+ */
+public record StockQuantityUpdateDTO(
+        Long storeId,
+        Long productId,
+        Integer quantity,
+        StockQuantityUpdateMode mode
+) {
+    public boolean isDelta() {
+        return mode == StockQuantityUpdateMode.DELTA;
+    }
+}
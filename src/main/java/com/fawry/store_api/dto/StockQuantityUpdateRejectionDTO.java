@@ -0,0 +1,8 @@
+package com.fawry.store_api.dto;
+
+public record StockQuantityUpdateRejectionDTO(
+        int index,
+        Long storeId,
+        Long productId,
+        String reason
+) {}
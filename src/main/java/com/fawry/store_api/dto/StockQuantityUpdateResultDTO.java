@@ -0,0 +1,9 @@
+package com.fawry.store_api.dto;
+
+import java.util.List;
+
+public record StockQuantityUpdateResultDTO(
+        int requested,
+        int updated,
+        List<StockQuantityUpdateRejectionDTO> rejected
+) {}
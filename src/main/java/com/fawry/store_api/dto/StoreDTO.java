@@ -13,7 +13,7 @@ public record StoreDTO(
         @NotBlank(message = "Store address is mandatory")
         @Size(min = 5, max = 255, message = "Store address must be between 5 and 255 characters")
         String address,
-        Integer productCount,
+        Long productCount,
         Integer totalStockItems,
         String imageUrl
 ) {}
\ No newline at end of file
@@ -29,6 +29,9 @@ public class InventoryReservation {
     @Column(name = "product_id", nullable = false)
     private Long productId;
 
+    @Column(name = "store_id")
+    private Long storeId;
+
     @NotNull(message = "Order ID is mandatory")
     @Column(name = "order_id", nullable = false)
     private Long orderId;
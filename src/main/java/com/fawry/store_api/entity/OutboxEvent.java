@@ -0,0 +1,45 @@
+package com.fawry.store_api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+@Entity
+@Builder
+@Table(name = "store_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long id;
+
+    @NotNull(message = "Topic is mandatory")
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "partition_no")
+    private Integer partition;
+
+    @Column(name = "message_key")
+    private String messageKey;
+
+    @NotNull(message = "Event type is mandatory")
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @NotNull(message = "Payload is mandatory")
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @CreationTimestamp
+    private Instant createdAt;
+}
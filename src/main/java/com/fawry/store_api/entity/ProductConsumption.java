@@ -29,7 +29,7 @@ public class ProductConsumption {
     private Long productId;
 
     @NotNull(message = "Store is mandatory")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "store_id", nullable = false, referencedColumnName = "store_id")
     private Store store;
 
@@ -0,0 +1,32 @@
+package com.fawry.store_api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Per store, product and day totals of {@link ProductConsumption}, kept in step by the consumption
+ * service in the same transaction as each insert or delete.
+ */
+@Entity
+@Table(name = "product_consumption_daily")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductConsumptionDaily {
+
+    @EmbeddedId
+    private ProductConsumptionDailyId id;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity;
+
+    @Column(name = "total_revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalRevenue;
+
+    @Column(name = "consumption_count", nullable = false)
+    private Long consumptionCount;
+}
@@ -28,7 +28,7 @@ public class Stock {
     private Long productId;
 
     @NotNull(message = "Store is mandatory")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "store_id", nullable = false)
     private Store store;
 
@@ -3,6 +3,7 @@ package com.fawry.store_api.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 
 @Entity
 @Table(name = "stores")
@@ -28,4 +29,14 @@ public class Store {
 
     @Column(name = "image_url")
     private String imageUrl;
+
+    /**
+     * Stock counters: the folded value on the store row plus the deltas still pending in
+     * {@code store_stock_counter_deltas}. Stock writes only append deltas, so JPA never writes these.
+     */
+    @Formula("stock_quantity + COALESCE((SELECT SUM(d.quantity_delta) FROM store_stock_counter_deltas d WHERE d.store_id = store_id), 0)")
+    private Long stockQuantity;
+
+    @Formula("stock_item_count + COALESCE((SELECT SUM(d.item_delta) FROM store_stock_counter_deltas d WHERE d.store_id = store_id), 0)")
+    private Integer stockItemCount;
 }
@@ -17,6 +17,7 @@ public enum ErrorCode {
 
 
     VALIDATION_ERROR(HttpStatus.BAD_REQUEST, "Validation failed"),
+    PAYLOAD_TOO_LARGE(HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large"),
 
 
     INTERNAL_SERVER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred"),
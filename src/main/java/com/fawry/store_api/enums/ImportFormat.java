@@ -0,0 +1,15 @@
+package com.fawry.store_api.enums;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    public static ImportFormat from(String format) {
+        for (ImportFormat importFormat : values()) {
+            if (importFormat.name().equalsIgnoreCase(format)) {
+                return importFormat;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + format);
+    }
+}
@@ -2,5 +2,6 @@ package com.fawry.store_api.enums;
 
 public enum ReservationStatus {
     RESERVED,
-    CANCELED
+    CANCELED,
+    EXPIRED
 }
@@ -0,0 +1,6 @@
+package com.fawry.store_api.enums;
+
+public enum StockQuantityUpdateMode {
+    ABSOLUTE,
+    DELTA
+}
@@ -0,0 +1,9 @@
+package com.fawry.store_api.exception;
+
+import com.fawry.store_api.enums.ErrorCode;
+
+public class PayloadTooLargeException extends BaseException {
+    public PayloadTooLargeException(String message) {
+        super(message, ErrorCode.PAYLOAD_TOO_LARGE);
+    }
+}
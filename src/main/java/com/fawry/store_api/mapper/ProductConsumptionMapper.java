@@ -14,7 +14,9 @@ import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -42,15 +44,7 @@ public class ProductConsumptionMapper {
            log.error("Error getting product: {}", e.getMessage(), e);
         }
 
-        return ProductConsumptionDTO.builder()
-                .consumptionId(consumption.getConsumptionId())
-                .productId(consumption.getProductId())
-                .productName(product != null ? product.name() : null)
-                .storeId(consumption.getStore().getId())
-                .consumptionQuantity(consumption.getConsumptionQuantity())
-                .consumptionDate(consumption.getConsumptionDate())
-                .productPrice(consumption.getProductPrice())
-                .build();
+        return toDTO(consumption, product);
     }
 
     public ProductConsumption toEntity(ProductConsumptionDTO dto) {
@@ -70,8 +64,35 @@ public class ProductConsumptionMapper {
     }
 
     public List<ProductConsumptionDTO> toDTOList(List<ProductConsumption> consumptions) {
+        Map<Long, ProductResponseDTO> products = fetchProducts(consumptions);
         return consumptions.stream()
-                .map(this::toDTO)
+                .map(consumption -> toDTO(consumption, products.get(consumption.getProductId())))
                 .collect(Collectors.toList());
     }
+
+    private Map<Long, ProductResponseDTO> fetchProducts(List<ProductConsumption> consumptions) {
+        Set<Long> productIds = consumptions.stream()
+                .map(ProductConsumption::getProductId)
+                .collect(Collectors.toSet());
+        try {
+            return webClientService.getProducts(productIds)
+                    .stream()
+                    .collect(Collectors.toMap(ProductResponseDTO::id, Function.identity(), (first, second) -> first));
+        } catch (Exception e) {
+            log.error("Error getting products: {}", e.getMessage(), e);
+            return Map.of();
+        }
+    }
+
+    private ProductConsumptionDTO toDTO(ProductConsumption consumption, ProductResponseDTO product) {
+        return ProductConsumptionDTO.builder()
+                .consumptionId(consumption.getConsumptionId())
+                .productId(consumption.getProductId())
+                .productName(product != null ? product.name() : null)
+                .storeId(consumption.getStore().getId())
+                .consumptionQuantity(consumption.getConsumptionQuantity())
+                .consumptionDate(consumption.getConsumptionDate())
+                .productPrice(consumption.getProductPrice())
+                .build();
+    }
 }
\ No newline at end of file
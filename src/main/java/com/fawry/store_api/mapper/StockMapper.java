@@ -12,7 +12,9 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -39,17 +41,7 @@ public class StockMapper {
             log.warn("Could not fetch product details for stock: {}", e.getMessage());
         }
 
-        return StockDTO.builder()
-                .id(stock.getId())
-                .productId(stock.getProductId())
-                .productName(product != null ? product.name() : null)
-                .productPrice(product != null ? BigDecimal.valueOf(product.price()) : null)
-                .productDescription(product != null ? product.description() : null)
-                .productImage(product != null ? product.imageUrl() : null)
-                .storeId(stock.getStore().getId())
-                .stockAvailableQuantity(stock.getStockAvailableQuantity())
-                .stockLastUpdated(stock.getStockLastUpdated())
-                .build();
+        return toDTO(stock, product);
     }
 
     public Stock toEntity(StockDTO dto) {
@@ -68,8 +60,37 @@ public class StockMapper {
     }
 
     public List<StockDTO> toDTOList(List<Stock> stocks) {
+        Map<Long, ProductResponseDTO> products = fetchProducts(stocks);
         return stocks.stream()
-                .map(this::toDTO)
+                .map(stock -> toDTO(stock, products.get(stock.getProductId())))
                 .collect(Collectors.toList());
     }
+
+    private Map<Long, ProductResponseDTO> fetchProducts(List<Stock> stocks) {
+        Set<Long> productIds = stocks.stream()
+                .map(Stock::getProductId)
+                .collect(Collectors.toSet());
+        try {
+            return webClientService.getProducts(productIds)
+                    .stream()
+                    .collect(Collectors.toMap(ProductResponseDTO::id, Function.identity(), (first, second) -> first));
+        } catch (Exception e) {
+            log.warn("Could not fetch product details for stocks: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private StockDTO toDTO(Stock stock, ProductResponseDTO product) {
+        return StockDTO.builder()
+                .id(stock.getId())
+                .productId(stock.getProductId())
+                .productName(product != null ? product.name() : null)
+                .productPrice(product != null ? BigDecimal.valueOf(product.price()) : null)
+                .productDescription(product != null ? product.description() : null)
+                .productImage(product != null ? product.imageUrl() : null)
+                .storeId(stock.getStore().getId())
+                .stockAvailableQuantity(stock.getStockAvailableQuantity())
+                .stockLastUpdated(stock.getStockLastUpdated())
+                .build();
+    }
 }
@@ -6,11 +6,15 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Component
 public class StoreMapper {
-    public StoreDTO toDTO(Store store, int productCount, int totalStockItems) {
+    public StoreDTO toDTO(Store store) {
+        if (store == null) return null;
+        return toDTO(store, store.getStockQuantity(), store.getStockItemCount());
+    }
+
+    public StoreDTO toDTO(Store store, long productCount, int totalStockItems) {
         if (store == null) return null;
         return StoreDTO.builder()
                 .id(store.getId())
@@ -32,9 +36,9 @@ public class StoreMapper {
                 .build();
     }
 
-    public List<StoreDTO> toDTOList(List<Store> stores, List<Integer> productCounts, List<Integer> totalStockItems) {
-        return IntStream.range(0, stores.size())
-                .mapToObj(i -> toDTO(stores.get(i), productCounts.get(i), totalStockItems.get(i)))
+    public List<StoreDTO> toDTOList(List<Store> stores) {
+        return stores.stream()
+                .map(this::toDTO)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.fawry.store_api.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements one call of the endpoint may execute, independent of how many rows it returns.
+ * A call that needs more is counted in {@code store.sql.budget.exceeded} and fails the endpoint budget
+ * test, which is how N+1 loops are caught before they ship.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlStatementBudget {
+
+    int value();
+}
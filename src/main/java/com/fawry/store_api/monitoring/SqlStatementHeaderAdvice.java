@@ -0,0 +1,39 @@
+package com.fawry.store_api.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Non-prod only: reports the statements run so far as response headers. They are set just before the
+ * body is written, the last point at which headers can still change.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "store.sql.statement-header.enabled", havingValue = "true")
+public class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+    public static final String STATEMENT_TIME_HEADER = "X-SQL-Statement-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.current();
+        if (scope != null) {
+            response.getHeaders().set(STATEMENT_COUNT_HEADER, String.valueOf(scope.statements()));
+            response.getHeaders().set(STATEMENT_TIME_HEADER, String.format("%.3f", scope.nanos() / 1e6));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,50 @@
+package com.fawry.store_api.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the statements of each controller call and checks them against the endpoint's
+ * {@link SqlStatementBudget}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SqlStatementInterceptor implements HandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = SqlStatementInterceptor.class.getName() + ".scope";
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(SCOPE_ATTRIBUTE, SqlStatementCounter.open());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof SqlStatementCounter.Scope scope)) {
+            return;
+        }
+        scope.close();
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        sqlStatementMetrics.record("http", endpoint, scope);
+
+        SqlStatementBudget budget = ((HandlerMethod) handler).getMethodAnnotation(SqlStatementBudget.class);
+        if (budget != null && scope.statements() > budget.value()) {
+            sqlStatementMetrics.budgetExceeded(endpoint);
+            log.warn("{} executed {} SQL statements, its budget is {}", endpoint, scope.statements(), budget.value());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.fawry.store_api.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the statements of each listener invocation. Boot applies it to every container factory built
+ * through its configurer, record and batch listeners alike.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementListenerInterceptor implements RecordInterceptor<Object, Object>, BatchInterceptor<Object, Object> {
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        SqlStatementCounter.open();
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        close(record.topic());
+    }
+
+    @Override
+    public ConsumerRecords<Object, Object> intercept(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        SqlStatementCounter.open();
+        return records;
+    }
+
+    @Override
+    public void success(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        close(topicOf(records));
+    }
+
+    @Override
+    public void failure(ConsumerRecords<Object, Object> records, Exception exception, Consumer<Object, Object> consumer) {
+        close(topicOf(records));
+    }
+
+    private void close(String topic) {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.current();
+        if (scope != null) {
+            scope.close();
+            sqlStatementMetrics.record("listener", topic, scope);
+        }
+    }
+
+    private static String topicOf(ConsumerRecords<Object, Object> records) {
+        return records.partitions().stream()
+                .map(partition -> partition.topic())
+                .findFirst()
+                .orElse("unknown");
+    }
+}
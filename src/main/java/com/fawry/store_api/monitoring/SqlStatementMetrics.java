@@ -0,0 +1,42 @@
+package com.fawry.store_api.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Records the statements of one unit of work, tagged by where it ran: {@code scope=http} with the
+ * endpoint pattern, or {@code scope=listener} with the topic.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public void record(String scope, String name, SqlStatementCounter.Scope counted) {
+        DistributionSummary.builder("store.sql.statements")
+                .description("SQL statements executed per request or listener invocation")
+                .baseUnit("statements")
+                .tag("scope", scope)
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(counted.statements());
+        Timer.builder("store.sql.time")
+                .description("Time spent executing SQL per request or listener invocation")
+                .tag("scope", scope)
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofNanos(counted.nanos()));
+    }
+
+    public void budgetExceeded(String name) {
+        meterRegistry.counter("store.sql.budget.exceeded", "name", name).increment();
+    }
+}
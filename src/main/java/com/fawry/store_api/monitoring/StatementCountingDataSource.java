@@ -0,0 +1,74 @@
+package com.fawry.store_api.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts every statement execution on connections from the target pool into {@link SqlStatementCounter},
+ * whether it comes from Hibernate or a JdbcTemplate. A JDBC batch is one execution, so batched writes
+ * cost one statement however many rows they carry.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        Object result = invoke(connection, method, args);
+                        yield result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())
+                                ? countingStatement(statement, method.getReturnType())
+                                : result;
+                    }
+                });
+    }
+
+    private static Object countingStatement(Statement statement, Class<?> statementType) {
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{statementType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        if (!method.getName().startsWith("execute")) {
+                            yield invoke(statement, method, args);
+                        }
+                        long start = System.nanoTime();
+                        try {
+                            yield invoke(statement, method, args);
+                        } finally {
+                            SqlStatementCounter.record(System.nanoTime() - start);
+                        }
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
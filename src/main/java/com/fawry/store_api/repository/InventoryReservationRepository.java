@@ -8,7 +8,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long> {
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long>, InventoryReservationRepositoryCustom {
 
     Optional<List<InventoryReservation>> findByOrderId(Long orderId);
 }
@@ -0,0 +1,19 @@
+package com.fawry.store_api.repository;
+
+import com.fawry.store_api.dto.StockAdjustmentDTO;
+import com.fawry.store_api.enums.ReservationStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+public interface InventoryReservationRepositoryCustom {
+    void insertReservations(Long orderId, List<StockAdjustmentDTO> lines);
+
+    List<StockAdjustmentDTO> releaseReservations(Long orderId, ReservationStatus releasedStatus);
+
+    /**
+     * @return the number of reservations expired per order id
+     */
+    Map<Long, Integer> expireReservations(Duration ttl, int limit);
+}
@@ -0,0 +1,129 @@
+package com.fawry.store_api.repository;
+
+import com.fawry.store_api.dto.StockAdjustmentDTO;
+import com.fawry.store_api.enums.ReservationStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.fawry.store_api.enums.ReservationStatus.EXPIRED;
+import static com.fawry.store_api.enums.ReservationStatus.RESERVED;
+
+@RequiredArgsConstructor
+public class InventoryReservationRepositoryCustomImpl implements InventoryReservationRepositoryCustom {
+
+    private static final String INSERT_RESERVATION = """
+            INSERT INTO inventory_reservation
+                (order_id, store_id, product_id, reserved_quantity, status, reserve_inventory_last_updated)
+            VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String RELEASE_RESERVATIONS = """
+            UPDATE inventory_reservation
+            SET status = ?,
+                reserve_inventory_last_updated = CURRENT_TIMESTAMP
+            WHERE order_id = ?
+              AND status = ?
+            RETURNING store_id, product_id, reserved_quantity
+            """;
+
+    /**
+     * Expires the reservations of the orders holding the oldest reservations and gives their quantity
+     * back to stock, and to the stores' stock counter deltas, in one statement. Whole orders are expired
+     * so each one is reported, and canceled, exactly once.
+     * SKIP LOCKED leaves rows a cancellation is working on to that transaction, and the limit keeps
+     * each statement's lock footprint small. Stock rows are locked in (store_id, product_id) order before
+     * they are restocked, the same order reservations, cancellations and batch updates use, so the sweep
+     * cannot deadlock with them.
+     */
+    private static final String EXPIRE_RESERVATIONS = """
+            WITH expired_orders AS (
+                SELECT DISTINCT oldest.order_id
+                FROM (SELECT order_id
+                      FROM inventory_reservation
+                      WHERE status = ?
+                        AND reserve_inventory_last_updated < CURRENT_TIMESTAMP - make_interval(secs => ?)
+                        AND store_id IS NOT NULL
+                      ORDER BY reserve_inventory_last_updated
+                      LIMIT ?) oldest
+            ), expired AS (
+                SELECT r.id
+                FROM inventory_reservation r
+                JOIN expired_orders o ON o.order_id = r.order_id
+                WHERE r.status = ?
+                  AND r.store_id IS NOT NULL
+                FOR UPDATE OF r SKIP LOCKED
+            ), released AS (
+                UPDATE inventory_reservation r
+                SET status = ?,
+                    reserve_inventory_last_updated = CURRENT_TIMESTAMP
+                FROM expired
+                WHERE r.id = expired.id
+                RETURNING r.order_id, r.store_id, r.product_id, r.reserved_quantity
+            ), released_totals AS (
+                SELECT store_id, product_id, SUM(reserved_quantity) AS quantity
+                FROM released
+                GROUP BY store_id, product_id
+            ), locked_stock AS (
+                SELECT s.stock_id, released_totals.quantity
+                FROM stock s
+                JOIN released_totals ON released_totals.store_id = s.store_id
+                                    AND released_totals.product_id = s.product_id
+                ORDER BY s.store_id, s.product_id
+                FOR UPDATE OF s
+            ), restocked AS (
+                UPDATE stock s
+                SET stock_available_quantity = s.stock_available_quantity + locked_stock.quantity,
+                    stock_last_updated = CURRENT_TIMESTAMP
+                FROM locked_stock
+                WHERE s.stock_id = locked_stock.stock_id
+                RETURNING s.store_id, locked_stock.quantity
+            ), recounted AS (
+                INSERT INTO store_stock_counter_deltas (store_id, quantity_delta, item_delta)
+                SELECT store_id, SUM(quantity), 0
+                FROM restocked
+                GROUP BY store_id
+            )
+            SELECT order_id, COUNT(*) AS reservations
+            FROM released
+            GROUP BY order_id
+            ORDER BY order_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertReservations(Long orderId, List<StockAdjustmentDTO> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_RESERVATION, lines.stream()
+                .map(line -> new Object[]{
+                        orderId, line.storeId(), line.productId(), line.quantity(), RESERVED.name()})
+                .toList());
+    }
+
+    @Override
+    public List<StockAdjustmentDTO> releaseReservations(Long orderId, ReservationStatus releasedStatus) {
+        return jdbcTemplate.query(RELEASE_RESERVATIONS,
+                (rs, rowNum) -> new StockAdjustmentDTO(
+                        rs.getObject("store_id", Long.class),
+                        rs.getLong("product_id"),
+                        rs.getInt("reserved_quantity")),
+                releasedStatus.name(), orderId, RESERVED.name());
+    }
+
+    @Override
+    public Map<Long, Integer> expireReservations(Duration ttl, int limit) {
+        Map<Long, Integer> expired = new LinkedHashMap<>();
+        jdbcTemplate.query(EXPIRE_RESERVATIONS,
+                (RowCallbackHandler) rs -> expired.put(rs.getLong("order_id"), rs.getInt("reservations")),
+                RESERVED.name(), ttl.toSeconds(), limit, RESERVED.name(), EXPIRED.name());
+        return expired;
+    }
+}
@@ -0,0 +1,34 @@
+package com.fawry.store_api.repository;
+
+import com.fawry.store_api.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    boolean tryLockRelay(@Param("lockKey") long lockKey);
+
+    @Query(value = "SELECT * FROM store_outbox ORDER BY outbox_id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(@Param("limit") int limit);
+
+    /**
+     * Copies an event the broker rejected for good into the dead-letter table; the caller still
+     * deletes it from the outbox.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO store_outbox_dead_letter
+                (outbox_id, topic, partition_no, message_key, event_type, payload, created_at, error)
+            SELECT outbox_id, topic, partition_no, message_key, event_type, payload, created_at, :error
+            FROM store_outbox
+            WHERE outbox_id = :id
+            """, nativeQuery = true)
+    int copyToDeadLetter(@Param("id") Long id, @Param("error") String error);
+}
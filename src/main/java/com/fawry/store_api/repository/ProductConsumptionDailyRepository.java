@@ -0,0 +1,103 @@
+package com.fawry.store_api.repository;
+
+import com.fawry.store_api.dto.ProductConsumptionDailyDTO;
+import com.fawry.store_api.dto.ProductConsumptionTotalsDTO;
+import com.fawry.store_api.entity.ProductConsumptionDaily;
+import com.fawry.store_api.entity.ProductConsumptionDailyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductConsumptionDailyRepository extends JpaRepository<ProductConsumptionDaily, ProductConsumptionDailyId> {
+
+    /**
+     * Adds an inserted consumption to its day. The day is derived in the database, the same way
+     * {@link #rebuildStore} derives it, so incremental and rebuilt rollups always agree.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_consumption_daily AS d
+                (store_id, product_id, consumption_day, total_quantity, total_revenue, consumption_count)
+            SELECT store_id, product_id, CAST(consumption_date AS DATE),
+                   consumption_quantity, COALESCE(consumption_quantity * product_price, 0), 1
+            FROM product_consumptions
+            WHERE consumption_id = :consumptionId
+            ON CONFLICT (store_id, product_id, consumption_day) DO UPDATE
+            SET total_quantity = d.total_quantity + EXCLUDED.total_quantity,
+                total_revenue = d.total_revenue + EXCLUDED.total_revenue,
+                consumption_count = d.consumption_count + 1
+            """, nativeQuery = true)
+    int addConsumption(@Param("consumptionId") Long consumptionId);
+
+    /**
+     * Takes a consumption out of its day; must run before the consumption row is deleted.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE product_consumption_daily d
+            SET total_quantity = d.total_quantity - c.consumption_quantity,
+                total_revenue = d.total_revenue - COALESCE(c.consumption_quantity * c.product_price, 0),
+                consumption_count = d.consumption_count - 1
+            FROM product_consumptions c
+            WHERE c.consumption_id = :consumptionId
+              AND d.store_id = c.store_id
+              AND d.product_id = c.product_id
+              AND d.consumption_day = CAST(c.consumption_date AS DATE)
+            """, nativeQuery = true)
+    int removeConsumption(@Param("consumptionId") Long consumptionId);
+
+    @Modifying
+    @Query(value = "DELETE FROM product_consumption_daily WHERE store_id = :storeId AND consumption_count <= 0", nativeQuery = true)
+    int deleteEmptyDays(@Param("storeId") Long storeId);
+
+    @Modifying
+    @Query(value = "DELETE FROM product_consumption_daily WHERE store_id = :storeId", nativeQuery = true)
+    int deleteStore(@Param("storeId") Long storeId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_consumption_daily
+                (store_id, product_id, consumption_day, total_quantity, total_revenue, consumption_count)
+            SELECT store_id, product_id, CAST(consumption_date AS DATE),
+                   SUM(consumption_quantity), COALESCE(SUM(consumption_quantity * product_price), 0), COUNT(*)
+            FROM product_consumptions
+            WHERE store_id = :storeId
+            GROUP BY store_id, product_id, CAST(consumption_date AS DATE)
+            """, nativeQuery = true)
+    int rebuildStore(@Param("storeId") Long storeId);
+
+    @Query("""
+            select new com.fawry.store_api.dto.ProductConsumptionDailyDTO(
+                d.id.storeId, d.id.productId, d.id.consumptionDay, d.totalQuantity, d.totalRevenue, d.consumptionCount)
+            from ProductConsumptionDaily d
+            where d.id.storeId = :storeId
+              and (:productId is null or d.id.productId = :productId)
+              and d.id.consumptionDay between :from and :to
+            order by d.id.consumptionDay, d.id.productId
+            """)
+    List<ProductConsumptionDailyDTO> findDaily(@Param("storeId") Long storeId,
+                                               @Param("productId") Long productId,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
+
+    @Query("""
+            select new com.fawry.store_api.dto.ProductConsumptionTotalsDTO(
+                d.id.storeId, d.id.productId, sum(d.totalQuantity), sum(d.totalRevenue), sum(d.consumptionCount))
+            from ProductConsumptionDaily d
+            where d.id.storeId = :storeId
+              and (:productId is null or d.id.productId = :productId)
+              and d.id.consumptionDay between :from and :to
+            group by d.id.storeId, d.id.productId
+            order by d.id.productId
+            """)
+    List<ProductConsumptionTotalsDTO> findTotals(@Param("storeId") Long storeId,
+                                                 @Param("productId") Long productId,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to);
+}
@@ -1,13 +1,37 @@
 package com.fawry.store_api.repository;
 
 import com.fawry.store_api.entity.ProductConsumption;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ProductConsumptionRepository extends JpaRepository<ProductConsumption, Long> {
     List<ProductConsumption> findByStoreId(Long storeId);
     List<ProductConsumption> findByStoreIdAndProductId(Long storeId, Long productId);
+
+    @Query("select c from ProductConsumption c where c.store.id = :storeId and c.consumptionId > :afterId order by c.consumptionId")
+    List<ProductConsumption> findPageByStoreId(@Param("storeId") Long storeId, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Must be consumed inside a transaction so the driver reads through a server-side cursor
+     * 500 rows at a time instead of buffering the whole result.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from ProductConsumption c where c.store.id = :storeId and c.consumptionDate >= :from and c.consumptionDate < :to order by c.consumptionDate, c.consumptionId")
+    Stream<ProductConsumption> streamByStoreId(@Param("storeId") Long storeId, @Param("from") Instant from, @Param("to") Instant to);
 }
@@ -1,18 +1,60 @@
 package com.fawry.store_api.repository;
 
+import com.fawry.store_api.dto.StockAdjustmentDTO;
 import com.fawry.store_api.entity.Stock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StockRepository extends JpaRepository<Stock, Long> {
+public interface StockRepository extends JpaRepository<Stock, Long>, StockRepositoryCustom {
     Page<Stock> findByStoreId(Long storeId, Pageable pageable);
     List<Stock> findByStoreId(Long storeId);
     Optional<Stock> findByStoreIdAndProductId(Long storeId, Long productId);
     Optional<Stock> findByProductId(Long productId);
+
+    /**
+     * Reads a stock row with {@code FOR UPDATE} so a writer that records the quantity change
+     * against the store counters sees the quantity no concurrent writer can still change.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Stock s where s.id = :id")
+    Optional<Stock> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * Written out rather than derived: the derived query joins stores, and Hibernate then locks in a
+     * follow-up select after the quantity has already been read.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Stock s where s.store.id = :storeId and s.productId = :productId")
+    Optional<Stock> findForUpdateByStoreIdAndProductId(@Param("storeId") Long storeId,
+                                                       @Param("productId") Long productId);
+
+    @Query("select s from Stock s where s.store.id = :storeId and s.id > :afterId order by s.id")
+    List<Stock> findPageByStoreId(@Param("storeId") Long storeId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            select new com.fawry.store_api.dto.StockAdjustmentDTO(
+                s.store.id, s.productId, s.stockAvailableQuantity)
+            from Stock s
+            where s.store.id in :storeIds
+              and s.productId in :productIds
+            """)
+    List<StockAdjustmentDTO> findStockLevels(@Param("storeIds") Collection<Long> storeIds,
+                                             @Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("delete from Stock s where s.store.id = :storeId")
+    int deleteAllByStoreId(@Param("storeId") Long storeId);
 }
@@ -0,0 +1,29 @@
+package com.fawry.store_api.repository;
+
+import com.fawry.store_api.dto.StockAdjustmentDTO;
+import com.fawry.store_api.dto.StockImportRowDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface StockRepositoryCustom {
+    int[] decrementAllIfAvailable(List<StockAdjustmentDTO> adjustments);
+
+    void incrementAll(List<StockAdjustmentDTO> adjustments);
+
+    int[] updateQuantities(List<StockQuantityUpdateDTO> updates);
+
+    int recountStores(Collection<Long> storeIds);
+
+    void createImportStaging();
+
+    void copyToImportStaging(List<StockImportRowDTO> rows);
+
+    void removeImportRowsWithUnknownStore(Consumer<StockImportRowDTO> removed);
+
+    int upsertFromImportStaging();
+
+    List<Long> findImportedStoreIds();
+}
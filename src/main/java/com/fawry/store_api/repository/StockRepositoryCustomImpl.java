@@ -0,0 +1,250 @@
+package com.fawry.store_api.repository;
+
+import com.fawry.store_api.dto.StockAdjustmentDTO;
+import com.fawry.store_api.dto.StockImportRowDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateDTO;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class StockRepositoryCustomImpl implements StockRepositoryCustom {
+
+    private static final String DECREMENT_IF_AVAILABLE = """
+            UPDATE stock
+            SET stock_available_quantity = stock_available_quantity - ?,
+                stock_last_updated = CURRENT_TIMESTAMP
+            WHERE store_id = ?
+              AND product_id = ?
+              AND stock_available_quantity >= ?
+            """;
+
+    private static final String INCREMENT = """
+            UPDATE stock
+            SET stock_available_quantity = stock_available_quantity + ?,
+                stock_last_updated = CURRENT_TIMESTAMP
+            WHERE store_id = ?
+              AND product_id = ?
+            """;
+
+    private static final String RECORD_STORE_QUANTITY_DELTA = """
+            INSERT INTO store_stock_counter_deltas (store_id, quantity_delta, item_delta)
+            VALUES (?, ?, 0)
+            """;
+
+    /**
+     * Session-local staging table for bulk imports; it disappears when the import transaction ends,
+     * so concurrent imports never see each other's rows.
+     */
+    private static final String CREATE_IMPORT_STAGING = """
+            CREATE TEMPORARY TABLE IF NOT EXISTS stock_import_staging (
+                line_no BIGINT NOT NULL,
+                store_id BIGINT NOT NULL,
+                product_id BIGINT NOT NULL,
+                quantity INT NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_TO_IMPORT_STAGING =
+            "COPY stock_import_staging (line_no, store_id, product_id, quantity) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String REMOVE_IMPORT_ROWS_WITH_UNKNOWN_STORE = """
+            DELETE FROM stock_import_staging staged
+            WHERE NOT EXISTS (SELECT 1 FROM stores st WHERE st.store_id = staged.store_id)
+            RETURNING line_no, store_id, product_id, quantity
+            """;
+
+    private static final String UPSERT_FROM_IMPORT_STAGING = """
+            INSERT INTO stock (product_id, store_id, stock_available_quantity, stock_last_updated)
+            SELECT product_id, store_id, quantity, CURRENT_TIMESTAMP
+            FROM stock_import_staging
+            ORDER BY store_id, product_id
+            ON CONFLICT (product_id, store_id) DO UPDATE
+            SET stock_available_quantity = EXCLUDED.stock_available_quantity,
+                stock_last_updated = EXCLUDED.stock_last_updated
+            """;
+
+    private static final String FIND_IMPORTED_STORE_IDS = "SELECT DISTINCT store_id FROM stock_import_staging";
+
+    /**
+     * Applies one absolute or delta update. Rows the update would take below zero are left alone, so
+     * the CHECK constraint never aborts the batch.
+     */
+    private static final String UPDATE_QUANTITY = """
+            UPDATE stock
+            SET stock_available_quantity = CASE WHEN ? THEN stock_available_quantity + ? ELSE ? END,
+                stock_last_updated = CURRENT_TIMESTAMP
+            WHERE store_id = ?
+              AND product_id = ?
+              AND CASE WHEN ? THEN stock_available_quantity + ? ELSE ? END >= 0
+            """;
+
+    private static final int RECOUNT_LOCK_NAMESPACE = 0x53544B43;
+
+    /**
+     * Serializes recounts of a store, so two of them cannot both see the same drift and correct it twice.
+     * Keys are taken in order so recounts of overlapping stores cannot deadlock. Stock writes never take
+     * these locks.
+     */
+    private static final String LOCK_RECOUNTS = """
+            SELECT pg_advisory_xact_lock(?, lock_key)
+            FROM (SELECT DISTINCT hashint8(store_id) AS lock_key
+                  FROM unnest(CAST(? AS BIGINT[])) AS ids(store_id)
+                  ORDER BY lock_key) keys
+            """;
+
+    /**
+     * Appends whatever delta brings each store's counters, pending deltas included, back in line with its
+     * stock rows. It is a single statement, so stock rows and deltas are read from one snapshot: a write
+     * that committed both is counted in both, one that has not is counted in neither.
+     */
+    private static final String RECOUNT_STORES = """
+            INSERT INTO store_stock_counter_deltas (store_id, quantity_delta, item_delta)
+            SELECT store_id, quantity_drift, item_drift
+            FROM (SELECT st.store_id,
+                         COALESCE(actual.quantity, 0) - st.stock_quantity - COALESCE(pending.quantity, 0) AS quantity_drift,
+                         COALESCE(actual.items, 0) - st.stock_item_count - COALESCE(pending.items, 0) AS item_drift
+                  FROM stores st
+                  LEFT JOIN (SELECT store_id, SUM(stock_available_quantity) AS quantity, COUNT(*) AS items
+                             FROM stock
+                             WHERE store_id = ANY (CAST(? AS BIGINT[]))
+                             GROUP BY store_id) actual ON actual.store_id = st.store_id
+                  LEFT JOIN (SELECT store_id, SUM(quantity_delta) AS quantity, SUM(item_delta) AS items
+                             FROM store_stock_counter_deltas
+                             WHERE store_id = ANY (CAST(? AS BIGINT[]))
+                             GROUP BY store_id) pending ON pending.store_id = st.store_id
+                  WHERE st.store_id = ANY (CAST(? AS BIGINT[]))) drift
+            WHERE quantity_drift <> 0 OR item_drift <> 0
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] decrementAllIfAvailable(List<StockAdjustmentDTO> adjustments) {
+        if (adjustments.isEmpty()) {
+            return new int[0];
+        }
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_IF_AVAILABLE, adjustments.stream()
+                .map(adjustment -> new Object[]{
+                        adjustment.quantity(), adjustment.storeId(), adjustment.productId(), adjustment.quantity()})
+                .toList());
+        adjustStoreQuantities(adjustments, updated, -1);
+        return updated;
+    }
+
+    @Override
+    public void incrementAll(List<StockAdjustmentDTO> adjustments) {
+        if (adjustments.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT, adjustments.stream()
+                .map(adjustment -> new Object[]{
+                        adjustment.quantity(), adjustment.storeId(), adjustment.productId()})
+                .toList());
+        adjustStoreQuantities(adjustments, updated, 1);
+    }
+
+    /**
+     * Records the stock rows that were actually updated as deltas on their stores' counters, one per store.
+     */
+    private void adjustStoreQuantities(List<StockAdjustmentDTO> adjustments, int[] updated, int sign) {
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            if (updated[i] > 0) {
+                StockAdjustmentDTO adjustment = adjustments.get(i);
+                deltas.merge(adjustment.storeId(), (long) sign * adjustment.quantity(), Long::sum);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(RECORD_STORE_QUANTITY_DELTA, deltas.entrySet().stream()
+                .map(delta -> new Object[]{delta.getKey(), delta.getValue()})
+                .toList());
+    }
+
+    @Override
+    public void createImportStaging() {
+        jdbcTemplate.execute(CREATE_IMPORT_STAGING);
+    }
+
+    @Override
+    public void copyToImportStaging(List<StockImportRowDTO> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder(rows.size() * 32);
+        for (StockImportRowDTO row : rows) {
+            csv.append(row.line()).append(',')
+                    .append(row.storeId()).append(',')
+                    .append(row.productId()).append(',')
+                    .append(row.quantity()).append('\n');
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_TO_IMPORT_STAGING, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void removeImportRowsWithUnknownStore(Consumer<StockImportRowDTO> removed) {
+        jdbcTemplate.query(REMOVE_IMPORT_ROWS_WITH_UNKNOWN_STORE, (RowCallbackHandler) rs -> removed.accept(
+                new StockImportRowDTO(rs.getLong("line_no"), rs.getLong("store_id"),
+                        rs.getLong("product_id"), rs.getInt("quantity"))));
+    }
+
+    @Override
+    public int upsertFromImportStaging() {
+        return jdbcTemplate.update(UPSERT_FROM_IMPORT_STAGING);
+    }
+
+    @Override
+    public List<Long> findImportedStoreIds() {
+        return jdbcTemplate.queryForList(FIND_IMPORTED_STORE_IDS, Long.class);
+    }
+
+    @Override
+    public int[] updateQuantities(List<StockQuantityUpdateDTO> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_QUANTITY, updates.stream()
+                .map(update -> new Object[]{
+                        update.isDelta(), update.quantity(), update.quantity(),
+                        update.storeId(), update.productId(),
+                        update.isDelta(), update.quantity(), update.quantity()})
+                .toList());
+    }
+
+    /**
+     * Brings the stock counters of the given stores back in line with their stock rows, for writes that
+     * set absolute quantities and so have no delta to record, and for the periodic reconciliation. Must run
+     * in a transaction so the recount locks are held until the correction commits.
+     *
+     * @return the number of stores whose counters had drifted
+     */
+    @Override
+    public int recountStores(Collection<Long> storeIds) {
+        if (storeIds.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = storeIds.toArray(Long[]::new);
+        jdbcTemplate.query(LOCK_RECOUNTS, (RowCallbackHandler) rs -> { }, RECOUNT_LOCK_NAMESPACE, ids);
+        return jdbcTemplate.update(RECOUNT_STORES, ids, ids, ids);
+    }
+}
@@ -1,12 +1,63 @@
 package com.fawry.store_api.repository;
 
 import com.fawry.store_api.entity.Store;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StoreRepository extends JpaRepository<Store, Long> {
     Optional<Store> findByName(String name);
+
+    @Query("select s.id from Store s where s.id > :afterId order by s.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Records a change to the store's stock counters. Writers only append to
+     * {@code store_stock_counter_deltas}, so concurrent stock writes to one store never queue on its row;
+     * {@link #foldStockCounterDeltas} moves the deltas into {@code stores} later.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO store_stock_counter_deltas (store_id, quantity_delta, item_delta)
+            VALUES (:storeId, :quantityDelta, :itemDelta)
+            """, nativeQuery = true)
+    int recordStockCounterDelta(@Param("storeId") Long storeId,
+                                @Param("quantityDelta") long quantityDelta,
+                                @Param("itemDelta") int itemDelta);
+
+    /**
+     * Adds the oldest pending deltas to their stores' counters and deletes them, in one statement so a
+     * reader summing counters and pending deltas sees each delta exactly once. Deltas of deleted stores
+     * are simply dropped.
+     *
+     * @return the number of deltas folded
+     */
+    @Query(value = """
+            WITH folded AS (
+                DELETE FROM store_stock_counter_deltas
+                WHERE delta_id IN (SELECT delta_id
+                                   FROM store_stock_counter_deltas
+                                   ORDER BY delta_id
+                                   LIMIT :limit
+                                   FOR UPDATE SKIP LOCKED)
+                RETURNING store_id, quantity_delta, item_delta
+            ), applied AS (
+                UPDATE stores st
+                SET stock_quantity = st.stock_quantity + totals.quantity,
+                    stock_item_count = st.stock_item_count + totals.items
+                FROM (SELECT store_id, SUM(quantity_delta) AS quantity, SUM(item_delta) AS items
+                      FROM folded
+                      GROUP BY store_id) totals
+                WHERE st.store_id = totals.store_id
+            )
+            SELECT COUNT(*) FROM folded
+            """, nativeQuery = true)
+    int foldStockCounterDeltas(@Param("limit") int limit);
 }
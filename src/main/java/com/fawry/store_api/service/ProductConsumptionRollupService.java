@@ -0,0 +1,15 @@
+package com.fawry.store_api.service;
+
+import com.fawry.store_api.dto.ProductConsumptionDailyDTO;
+import com.fawry.store_api.dto.ProductConsumptionTotalsDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ProductConsumptionRollupService {
+    List<ProductConsumptionDailyDTO> getDailyRollups(Long storeId, Long productId, LocalDate from, LocalDate to);
+
+    List<ProductConsumptionTotalsDTO> getTotals(Long storeId, Long productId, LocalDate from, LocalDate to);
+
+    int rebuildRollups(Long storeId);
+}
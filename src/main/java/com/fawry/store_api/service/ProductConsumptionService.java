@@ -1,7 +1,12 @@
 package com.fawry.store_api.service;
 
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.ProductConsumptionDTO;
+import com.fawry.store_api.enums.ExportFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 
 public interface ProductConsumptionService {
@@ -11,6 +16,19 @@ public interface ProductConsumptionService {
 
     List<ProductConsumptionDTO> getProductConsumptionsByStoreId(Long storeId);
 
+    CursorPageDTO<ProductConsumptionDTO> getProductConsumptionsByStoreId(Long storeId, String after, int limit);
+
     void deleteProductConsumption(Long id);
 
+    void exportProductConsumptions(Long storeId, Instant from, Instant to, ExportFormat format, ExportTarget target) throws IOException;
+
+    /**
+     * Where an export is written. It is only opened once the export request has been validated, so
+     * response headers set while opening are never sent with an error response.
+     */
+    @FunctionalInterface
+    interface ExportTarget {
+        OutputStream open() throws IOException;
+    }
+
 }
\ No newline at end of file
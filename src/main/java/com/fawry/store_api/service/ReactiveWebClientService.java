@@ -0,0 +1,13 @@
+package com.fawry.store_api.service;
+
+import com.fawry.store_api.dto.ProductResponseDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+public interface ReactiveWebClientService {
+    Flux<ProductResponseDTO> getProducts(Set<Long> productIds);
+
+    Mono<Void> checkIfProductsExist(Long productId);
+}
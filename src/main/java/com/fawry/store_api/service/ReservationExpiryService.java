@@ -0,0 +1,8 @@
+package com.fawry.store_api.service;
+
+public interface ReservationExpiryService {
+    /**
+     * @return the number of orders whose reservations were expired
+     */
+    int expireReservations();
+}
@@ -0,0 +1,11 @@
+package com.fawry.store_api.service;
+
+import com.fawry.store_api.dto.StockImportReportDTO;
+import com.fawry.store_api.enums.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface StockImportService {
+    StockImportReportDTO importStock(ImportFormat format, InputStream input) throws IOException;
+}
@@ -1,6 +1,9 @@
 package com.fawry.store_api.service;
 
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.StockDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateResultDTO;
 
 import java.util.List;
 
@@ -11,9 +14,13 @@ public interface StockService {
 
     List<StockDTO> getStockByStoreId(Long storeId);
 
+    CursorPageDTO<StockDTO> getStockByStoreId(Long storeId, String after, int limit);
+
     StockDTO updateStock(StockDTO stockDTO);
 
     void deleteStock(Long id);
 
     StockDTO updateStockQuantity(Long storeId, Long productId, Integer quantity);
+
+    StockQuantityUpdateResultDTO updateStockQuantities(List<StockQuantityUpdateDTO> updates);
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.fawry.store_api.service;
+
+public interface StoreCounterReconciliationService {
+    int foldStockCounterDeltas();
+
+    int reconcileStockCounters();
+}
@@ -2,6 +2,7 @@ package com.fawry.store_api.service;
 
 import com.fawry.kafka.events.OrderCanceledEventDTO;
 import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.ProductResponseDTO;
 import com.fawry.store_api.dto.StoreDTO;
 import org.springframework.data.domain.Page;
@@ -25,4 +26,6 @@ public interface StoreService {
 
     Page<ProductResponseDTO> getStoreProducts(Long storeId, int page, int size);
 
+    CursorPageDTO<ProductResponseDTO> getStoreProducts(Long storeId, String after, int limit);
+
 }
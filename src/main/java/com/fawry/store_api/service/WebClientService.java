@@ -4,9 +4,23 @@ import com.fawry.store_api.dto.ProductResponseDTO;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public interface WebClientService {
     List<ProductResponseDTO> getProducts(Set<Long> productIds);
 
     void checkIfProductsExist(Long productIds);
+
+    /**
+     * Starts looking up one product without blocking, so the caller can run its own queries meanwhile
+     * and collect the result with {@link #awaitProduct}.
+     */
+    CompletableFuture<ProductResponseDTO> lookupProduct(Long productId);
+
+    /**
+     * Waits for a lookup started by {@link #lookupProduct}.
+     *
+     * @throws com.fawry.store_api.exception.EntityNotFoundException if the product does not exist
+     */
+    ProductResponseDTO awaitProduct(CompletableFuture<ProductResponseDTO> productLookup, Long productId);
 }
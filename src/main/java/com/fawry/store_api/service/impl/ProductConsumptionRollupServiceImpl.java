@@ -0,0 +1,57 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.store_api.dto.ProductConsumptionDailyDTO;
+import com.fawry.store_api.dto.ProductConsumptionTotalsDTO;
+import com.fawry.store_api.exception.EntityNotFoundException;
+import com.fawry.store_api.repository.ProductConsumptionDailyRepository;
+import com.fawry.store_api.repository.StoreRepository;
+import com.fawry.store_api.service.ProductConsumptionRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ProductConsumptionRollupServiceImpl implements ProductConsumptionRollupService {
+    private final ProductConsumptionDailyRepository dailyRepository;
+    private final StoreRepository storeRepository;
+
+    @Override
+    public List<ProductConsumptionDailyDTO> getDailyRollups(Long storeId, Long productId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return dailyRepository.findDaily(storeId, productId, from, to);
+    }
+
+    @Override
+    public List<ProductConsumptionTotalsDTO> getTotals(Long storeId, Long productId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return dailyRepository.findTotals(storeId, productId, from, to);
+    }
+
+    /**
+     * Recomputes a store's rollups from {@code product_consumptions}, for backfills or after manual fixes.
+     */
+    @Override
+    @Transactional
+    public int rebuildRollups(Long storeId) {
+        storeRepository.findById(storeId)
+                .orElseThrow(() -> new EntityNotFoundException("Store", storeId));
+
+        dailyRepository.deleteStore(storeId);
+        int days = dailyRepository.rebuildStore(storeId);
+        log.info("Rebuilt {} daily consumption rollups for store {}", days, storeId);
+        return days;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+    }
+}
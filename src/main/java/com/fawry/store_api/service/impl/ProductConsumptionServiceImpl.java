@@ -1,26 +1,44 @@
 package com.fawry.store_api.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.ProductConsumptionDTO;
+import com.fawry.store_api.dto.ProductConsumptionExportDTO;
 import com.fawry.store_api.dto.ProductResponseDTO;
 import com.fawry.store_api.entity.ProductConsumption;
+import com.fawry.store_api.enums.ExportFormat;
 import com.fawry.store_api.entity.Stock;
 import com.fawry.store_api.exception.EntityNotFoundException;
 import com.fawry.store_api.exception.InsufficientStockException;
 import com.fawry.store_api.mapper.ProductConsumptionMapper;
+import com.fawry.store_api.repository.ProductConsumptionDailyRepository;
 import com.fawry.store_api.repository.ProductConsumptionRepository;
 import com.fawry.store_api.repository.StockRepository;
 import com.fawry.store_api.repository.StoreRepository;
 import com.fawry.store_api.service.ProductConsumptionService;
 import com.fawry.store_api.service.WebClientService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -28,16 +46,20 @@ import java.util.Set;
 @Slf4j
 public class ProductConsumptionServiceImpl implements ProductConsumptionService {
     private final ProductConsumptionRepository consumptionRepository;
+    private final ProductConsumptionDailyRepository dailyRepository;
     private final StockRepository stockRepository;
     private final StoreRepository storeRepository;
     private final ProductConsumptionMapper consumptionMapper;
     private final WebClientService webClientService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     @Override
     public ProductConsumptionDTO createProductConsumption(ProductConsumptionDTO consumptionDTO) {
+        CompletableFuture<ProductResponseDTO> productLookup = webClientService.lookupProduct(consumptionDTO.productId());
         validateStoreExists(consumptionDTO.storeId());
-        ProductResponseDTO product = validateAndGetProduct(consumptionDTO.productId());
         Stock stock = validateAndGetStock(consumptionDTO.storeId(), consumptionDTO.productId());
+        ProductResponseDTO product = webClientService.awaitProduct(productLookup, consumptionDTO.productId());
 
         validateStockQuantity(stock, consumptionDTO.consumptionQuantity());
 
@@ -48,7 +70,8 @@ public class ProductConsumptionServiceImpl implements ProductConsumptionService
 
             ProductConsumptionDTO enrichedDTO = enrichConsumptionWithProductInfo(consumptionDTO, product);
             ProductConsumption consumption = consumptionMapper.toEntity(enrichedDTO);
-            ProductConsumption savedConsumption = consumptionRepository.save(consumption);
+            ProductConsumption savedConsumption = consumptionRepository.saveAndFlush(consumption);
+            dailyRepository.addConsumption(savedConsumption.getConsumptionId());
 
             return consumptionMapper.toDTO(savedConsumption);
         } catch (Exception e) {
@@ -71,10 +94,78 @@ public class ProductConsumptionServiceImpl implements ProductConsumptionService
         return consumptionMapper.toDTOList(consumptions);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductConsumptionDTO> getProductConsumptionsByStoreId(Long storeId, String after, int limit) {
+        validateStoreExists(storeId);
+        CursorPageDTO.checkLimit(limit);
+        List<ProductConsumption> consumptions = consumptionRepository.findPageByStoreId(
+                storeId, CursorPageDTO.decodeCursor(after), Limit.of(limit + 1));
+        return CursorPageDTO.of(consumptions, limit, ProductConsumption::getConsumptionId, consumptionMapper::toDTOList);
+    }
+
+    /**
+     * Streams the store's consumptions straight to the target, opened after the store and the range have
+     * been checked. Rows are detached as soon as they are written, so memory stays flat no matter how long
+     * the history is.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProductConsumptions(Long storeId, Instant from, Instant to,
+                                          ExportFormat format, ExportTarget target) throws IOException {
+        validateStoreExists(storeId);
+        Instant exportFrom = from != null ? from : Instant.EPOCH;
+        Instant exportTo = to != null ? to : Instant.now();
+        if (!exportFrom.isBefore(exportTo)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        OutputStream out = target.open();
+        try (Stream<ProductConsumption> consumptions = consumptionRepository.streamByStoreId(storeId, exportFrom, exportTo)) {
+            switch (format) {
+                case NDJSON -> writeNdjson(consumptions, out);
+                case CSV -> writeCsv(consumptions, out);
+            }
+        }
+    }
+
+    private void writeNdjson(Stream<ProductConsumption> consumptions, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ProductConsumptionExportDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            Iterator<ProductConsumption> rows = consumptions.iterator();
+            while (rows.hasNext()) {
+                ProductConsumption consumption = rows.next();
+                writer.writeValue(generator, ProductConsumptionExportDTO.from(consumption));
+                generator.writeRaw('\n');
+                entityManager.detach(consumption);
+            }
+            generator.flush();
+        }
+    }
+
+    private void writeCsv(Stream<ProductConsumption> consumptions, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(ProductConsumptionExportDTO.CSV_HEADER);
+        writer.write('\n');
+        Iterator<ProductConsumption> rows = consumptions.iterator();
+        while (rows.hasNext()) {
+            ProductConsumption consumption = rows.next();
+            writer.write(ProductConsumptionExportDTO.from(consumption).toCsvLine());
+            writer.write('\n');
+            entityManager.detach(consumption);
+        }
+        writer.flush();
+    }
+
     @Override
     public void deleteProductConsumption(Long id) {
         ProductConsumption consumption = findConsumptionById(id);
         try {
+            dailyRepository.removeConsumption(id);
+            dailyRepository.deleteEmptyDays(consumption.getStore().getId());
             consumptionRepository.delete(consumption);
             log.info("Product consumption with ID {} successfully deleted", id);
         } catch (Exception e) {
@@ -89,13 +180,6 @@ public class ProductConsumptionServiceImpl implements ProductConsumptionService
                 .orElseThrow(() -> new EntityNotFoundException("Store", storeId));
     }
 
-    private ProductResponseDTO validateAndGetProduct(Long productId) {
-        return webClientService.getProducts(Set.of(productId))
-                .stream()
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException("Product", productId));
-    }
-
     private Stock validateAndGetStock(Long storeId, Long productId) {
         return stockRepository.findByStoreIdAndProductId(storeId, productId)
                 .orElseThrow(() -> new EntityNotFoundException("Stock",
@@ -116,7 +200,8 @@ public class ProductConsumptionServiceImpl implements ProductConsumptionService
         stock.setStockAvailableQuantity(
                 stock.getStockAvailableQuantity() - consumptionQuantity
         );
-        stockRepository.save(stock);
+        stockRepository.saveAndFlush(stock);
+        storeRepository.recordStockCounterDelta(stock.getStore().getId(), -consumptionQuantity, 0);
     }
 
     private ProductConsumptionDTO enrichConsumptionWithProductInfo(
@@ -0,0 +1,243 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.store_api.dto.ProductResponseDTO;
+import com.fawry.store_api.service.ReactiveWebClientService;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ReactiveWebClientServiceImpl implements ReactiveWebClientService, MeterBinder {
+
+    private final WebClient webClient;
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final Duration callTimeout;
+    private final AsyncLoadingCache<Long, Optional<ProductResponseDTO>> productCache;
+
+    public ReactiveWebClientServiceImpl(WebClient productWebClient,
+                                        @Value("${product.api.batch-size:100}") int batchSize,
+                                        @Value("${product.api.max-concurrency:4}") int maxConcurrency,
+                                        @Value("${product.api.call-timeout:5s}") Duration callTimeout,
+                                        @Value("${product.cache.maximum-size:10000}") long cacheMaximumSize,
+                                        @Value("${product.cache.ttl:10m}") Duration cacheTtl,
+                                        @Value("${product.cache.refresh-after:1m}") Duration cacheRefreshAfter,
+                                        @Value("${product.cache.negative-ttl:30s}") Duration cacheNegativeTtl) {
+        this.webClient = productWebClient;
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.callTimeout = callTimeout;
+        this.productCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new ProductExpiry(cacheTtl, cacheNegativeTtl))
+                .refreshAfterWrite(cacheRefreshAfter)
+                .recordStats()
+                .buildAsync(new ProductLoader());
+    }
+
+    @Override
+    public Flux<ProductResponseDTO> getProducts(Set<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return Mono.fromFuture(() -> productCache.getAll(productIds))
+                .flatMapIterable(Map::values)
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<Void> checkIfProductsExist(Long productId) {
+        if (productId == null) {
+            return Mono.error(new IllegalArgumentException("Product ID cannot be null"));
+        }
+
+        CompletableFuture<Optional<ProductResponseDTO>> cached = productCache.getIfPresent(productId);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return cached.join().isPresent()
+                    ? Mono.empty()
+                    : Mono.error(productNotFound(productId));
+        }
+
+        return webClient.get()
+                .uri("/api/products/{id}", productId)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(callTimeout)
+                .then()
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    // Only a definite 404 is cached; throttling or auth failures must not hide a product.
+                    if (e.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                        productCache.put(productId, CompletableFuture.completedFuture(Optional.empty()));
+                        return productNotFound(productId);
+                    }
+                    return new ResponseStatusException(
+                            HttpStatus.valueOf(e.getStatusCode().value()),
+                            "Error checking product existence: " + e.getMessage(),
+                            e
+                    );
+                })
+                .onErrorMap(TimeoutException.class, e -> new ResponseStatusException(
+                        HttpStatus.GATEWAY_TIMEOUT,
+                        "Timed out checking product " + productId,
+                        e
+                ));
+    }
+
+    /**
+     * Hit, miss, load and eviction counters of the product cache since startup.
+     */
+    public CacheStats getProductCacheStats() {
+        return productCache.synchronous().stats();
+    }
+
+    /**
+     * Publishes the same statistics as {@code cache.*} meters tagged {@code cache=products}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, productCache, "products");
+    }
+
+    private Mono<Map<Long, ProductResponseDTO>> fetchProducts(Set<? extends Long> productIds) {
+        return Flux.fromIterable(partition(productIds))
+                .flatMap(this::fetchChunk, maxConcurrency)
+                .flatMapIterable(products -> products)
+                .filter(productResponseDTO ->
+                        productIds.contains(productResponseDTO.id()))
+                .collectMap(ProductResponseDTO::id);
+    }
+
+    /**
+     * The timeout applies to the collected response, so it bounds the whole call rather than the gap
+     * between two products of a slowly streamed body.
+     */
+    private Mono<List<ProductResponseDTO>> fetchChunk(List<Long> chunk) {
+        String ids = chunk.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/products")
+                        .queryParam("ids", ids)
+                        .build())
+                .retrieve()
+                .bodyToFlux(ProductResponseDTO.class)
+                .collectList()
+                .timeout(callTimeout)
+                .onErrorMap(WebClientResponseException.class, e -> new ResponseStatusException(
+                        HttpStatus.valueOf(e.getStatusCode().value()),
+                        "Error fetching products " + ids + ": " + e.getMessage(),
+                        e
+                ))
+                .onErrorMap(TimeoutException.class, e -> new ResponseStatusException(
+                        HttpStatus.GATEWAY_TIMEOUT,
+                        "Timed out fetching products " + ids,
+                        e
+                ));
+    }
+
+    private List<List<Long>> partition(Set<? extends Long> productIds) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(Math.min(batchSize, productIds.size()));
+        for (Long productId : productIds) {
+            chunk.add(productId);
+            if (chunk.size() == batchSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private ResponseStatusException productNotFound(Long productId) {
+        return new ResponseStatusException(
+                HttpStatus.NOT_FOUND,
+                "Product with ID " + productId + " not found"
+        );
+    }
+
+    /**
+     * Loads misses with one multi-get and caches unknown IDs as empty so repeated lookups
+     * of a missing product do not go back to the product service until the negative TTL ends.
+     */
+    private class ProductLoader implements AsyncCacheLoader<Long, Optional<ProductResponseDTO>> {
+
+        @Override
+        public CompletableFuture<Optional<ProductResponseDTO>> asyncLoad(Long productId, Executor executor) {
+            return asyncLoadAll(Set.of(productId), executor)
+                    .thenApply(products -> products.get(productId));
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, Optional<ProductResponseDTO>>> asyncLoadAll(
+                Set<? extends Long> productIds, Executor executor) {
+            return fetchProducts(productIds)
+                    .map(found -> {
+                        Map<Long, Optional<ProductResponseDTO>> result = new HashMap<>();
+                        for (Long productId : productIds) {
+                            result.put(productId, Optional.ofNullable(found.get(productId)));
+                        }
+                        log.debug("Loaded {} of {} requested products into cache", found.size(), productIds.size());
+                        return result;
+                    })
+                    .toFuture();
+        }
+    }
+
+    /**
+     * Keeps found products for the regular TTL and missing ones for the shorter negative TTL.
+     * Entries past the refresh interval are still served while a background reload runs.
+     */
+    private record ProductExpiry(Duration ttl, Duration negativeTtl)
+            implements Expiry<Long, Optional<ProductResponseDTO>> {
+
+        @Override
+        public long expireAfterCreate(Long key, Optional<ProductResponseDTO> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Optional<ProductResponseDTO> value,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Optional<ProductResponseDTO> value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.kafka.events.OrderCanceledEventDTO;
+import com.fawry.kafka.producers.StoreCancellationPublisher;
+import com.fawry.store_api.repository.InventoryReservationRepository;
+import com.fawry.store_api.service.ReservationExpiryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Off unless {@code store.reservation.expiry.enabled} is true. Nothing marks a paid order's reservations yet,
+ * so a sweep would hand stock back for orders that completed; it should only be switched on once a
+ * payment-completed consumer moves reservations to a status this sweep skips.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "store.reservation.expiry.enabled", havingValue = "true")
+public class ReservationExpiryServiceImpl implements ReservationExpiryService {
+
+    private final InventoryReservationRepository inventoryReservationRepository;
+    private final StoreCancellationPublisher storeCancellationPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public ReservationExpiryServiceImpl(InventoryReservationRepository inventoryReservationRepository,
+                                        StoreCancellationPublisher storeCancellationPublisher,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${store.reservation.expiry.ttl:30m}") Duration ttl,
+                                        @Value("${store.reservation.expiry.batch-size:500}") int batchSize,
+                                        @Value("${store.reservation.expiry.max-batches:100}") int maxBatches) {
+        this.inventoryReservationRepository = inventoryReservationRepository;
+        this.storeCancellationPublisher = storeCancellationPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * Releases RESERVED holds older than the TTL back to stock and cancels their orders. Each batch expires
+     * the orders behind the oldest {@code batch-size} holds and enqueues an order-canceled event for every one
+     * of them in the same transaction, so the saga hears about exactly the orders whose stock was given back.
+     * Holds without a store are left alone because there is no stock row to give them back to.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${store.reservation.expiry.interval:60s}")
+    public int expireReservations() {
+        int orders = 0;
+        int reservations = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Map<Long, Integer> expired = transactionTemplate.execute(status -> expireBatch());
+            if (expired == null || expired.isEmpty()) {
+                break;
+            }
+            orders += expired.size();
+            reservations += expired.values().stream().mapToInt(Integer::intValue).sum();
+        }
+        if (orders > 0) {
+            log.info("Expired {} reservations of {} orders held longer than {}", reservations, orders, ttl);
+        }
+        return orders;
+    }
+
+    private Map<Long, Integer> expireBatch() {
+        Map<Long, Integer> expired = inventoryReservationRepository.expireReservations(ttl, batchSize);
+        String reason = "Reservation expired after " + ttl.toMinutes() + " minutes";
+        expired.keySet().forEach(orderId ->
+                storeCancellationPublisher.publishOrderCanceledEvent(new OrderCanceledEventDTO(orderId, reason, null)));
+        return expired;
+    }
+}
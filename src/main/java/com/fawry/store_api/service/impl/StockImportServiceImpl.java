@@ -0,0 +1,279 @@
+package com.fawry.store_api.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fawry.store_api.dto.ProductResponseDTO;
+import com.fawry.store_api.dto.StockAdjustmentDTO;
+import com.fawry.store_api.dto.StockImportErrorDTO;
+import com.fawry.store_api.dto.StockImportReportDTO;
+import com.fawry.store_api.dto.StockImportRowDTO;
+import com.fawry.store_api.enums.ImportFormat;
+import com.fawry.store_api.exception.PayloadTooLargeException;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.service.StockImportService;
+import com.fawry.store_api.service.WebClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class StockImportServiceImpl implements StockImportService {
+
+    private static final String CSV_HEADER = "storeId,productId,quantity";
+
+    private final StockRepository stockRepository;
+    private final WebClientService webClientService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final DataSize maxSize;
+
+    public StockImportServiceImpl(StockRepository stockRepository,
+                                  WebClientService webClientService,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${store.stock.import.chunk-size:5000}") int chunkSize,
+                                  @Value("${store.stock.import.max-reported-errors:1000}") int maxReportedErrors,
+                                  @Value("${store.stock.import.max-size:100MB}") DataSize maxSize) {
+        this.stockRepository = stockRepository;
+        this.webClientService = webClientService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Upserts (storeId, productId, quantity) rows, setting each stock row to the given quantity. The body is
+     * parsed into a local spool file and the products are checked a chunk at a time, all without a database
+     * connection. Only then does one short transaction COPY the rows into a staging table and move them into
+     * stock with a single INSERT ... ON CONFLICT. Bad rows are reported by line number and skipped, the rest
+     * of the file is still imported. A body larger than {@code store.stock.import.max-size} is rejected
+     * while it is spooled, before anything is imported.
+     */
+    @Override
+    public StockImportReportDTO importStock(ImportFormat format, InputStream input) throws IOException {
+        Report report = new Report(maxReportedErrors);
+        Path spool = Files.createTempFile("stock-import-", ".csv");
+        try {
+            Set<Long> productIds = spool(format, new SizeLimitedInputStream(input, maxSize), spool, report);
+            Set<Long> knownProducts = findKnownProducts(productIds);
+            Integer imported = transactionTemplate.execute(status -> apply(spool, knownProducts, report));
+
+            log.info("Imported {} of {} stock rows, {} rejected", imported, report.rowsRead, report.errorCount);
+            report.errors.sort(Comparator.comparingLong(StockImportErrorDTO::line));
+            return new StockImportReportDTO(report.rowsRead, imported == null ? 0 : imported, report.errorCount, report.errors);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Parses the body into the spool file, rejecting malformed and duplicate rows.
+     *
+     * @return the distinct product ids of the spooled rows
+     */
+    private Set<Long> spool(ImportFormat format, InputStream input, Path spool, Report report) throws IOException {
+        Map<StockKey, Long> firstLines = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try (BufferedWriter writer = Files.newBufferedWriter(spool, StandardCharsets.UTF_8)) {
+            long line = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank() || (line == 1 && format == ImportFormat.CSV && text.strip().equalsIgnoreCase(CSV_HEADER))) {
+                    continue;
+                }
+                report.rowsRead++;
+
+                StockImportRowDTO row;
+                try {
+                    row = parse(format, line, text);
+                } catch (IllegalArgumentException e) {
+                    report.reject(line, e.getMessage());
+                    continue;
+                }
+                Long firstLine = firstLines.putIfAbsent(new StockKey(row.storeId(), row.productId()), line);
+                if (firstLine != null) {
+                    report.reject(line, "Duplicate of line " + firstLine);
+                    continue;
+                }
+
+                productIds.add(row.productId());
+                writer.write(row.line() + "," + row.storeId() + "," + row.productId() + "," + row.quantity());
+                writer.newLine();
+            }
+        }
+        return productIds;
+    }
+
+    /**
+     * Looks the products up through the product client, one batched call per chunk.
+     */
+    private Set<Long> findKnownProducts(Set<Long> productIds) {
+        Set<Long> knownProducts = new HashSet<>(productIds.size());
+        List<Long> ids = List.copyOf(productIds);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            Set<Long> chunk = new HashSet<>(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            webClientService.getProducts(chunk).stream()
+                    .map(ProductResponseDTO::id)
+                    .forEach(knownProducts::add);
+        }
+        return knownProducts;
+    }
+
+    /**
+     * Copies the spooled rows whose product exists into staging a chunk at a time, then moves them into stock.
+     */
+    private int apply(Path spool, Set<Long> knownProducts, Report report) {
+        stockRepository.createImportStaging();
+        List<StockImportRowDTO> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                StockImportRowDTO row = readSpooled(text);
+                if (!knownProducts.contains(row.productId())) {
+                    report.reject(row.line(), "Product with ID " + row.productId() + " not found");
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    stockRepository.copyToImportStaging(chunk);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        stockRepository.copyToImportStaging(chunk);
+
+        stockRepository.removeImportRowsWithUnknownStore(row ->
+                report.reject(row.line(), "Store with ID " + row.storeId() + " not found"));
+        int imported = stockRepository.upsertFromImportStaging();
+        stockRepository.recountStores(stockRepository.findImportedStoreIds());
+        return imported;
+    }
+
+    private static StockImportRowDTO readSpooled(String text) {
+        String[] fields = text.split(",");
+        return new StockImportRowDTO(Long.parseLong(fields[0]), Long.valueOf(fields[1]),
+                Long.valueOf(fields[2]), Integer.valueOf(fields[3]));
+    }
+
+    private StockImportRowDTO parse(ImportFormat format, long line, String text) {
+        StockAdjustmentDTO stock = switch (format) {
+            case CSV -> parseCsv(text);
+            case NDJSON -> parseJson(text);
+        };
+        if (stock.storeId() == null || stock.productId() == null || stock.quantity() == null) {
+            throw new IllegalArgumentException("storeId, productId and quantity are required");
+        }
+        if (stock.quantity() < 0) {
+            throw new IllegalArgumentException("Stock quantity cannot be negative");
+        }
+        return new StockImportRowDTO(line, stock.storeId(), stock.productId(), stock.quantity());
+    }
+
+    private StockAdjustmentDTO parseCsv(String text) {
+        String[] fields = text.split(",", -1);
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("Expected " + CSV_HEADER);
+        }
+        try {
+            return new StockAdjustmentDTO(
+                    Long.valueOf(fields[0].strip()),
+                    Long.valueOf(fields[1].strip()),
+                    Integer.valueOf(fields[2].strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed number: " + e.getMessage());
+        }
+    }
+
+    private StockAdjustmentDTO parseJson(String text) {
+        try {
+            return objectMapper.readValue(text, StockAdjustmentDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private record StockKey(Long storeId, Long productId) {}
+
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+        private final DataSize maxSize;
+        private long remaining;
+
+        private SizeLimitedInputStream(InputStream in, DataSize maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+            this.remaining = maxSize.toBytes();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int bytes) {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new PayloadTooLargeException("Stock import exceeds the maximum size of " + maxSize);
+            }
+        }
+    }
+
+    private static final class Report {
+        private final int maxReportedErrors;
+        private final List<StockImportErrorDTO> errors = new ArrayList<>();
+        private long rowsRead;
+        private long errorCount;
+
+        private Report(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long line, String message) {
+            errorCount++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new StockImportErrorDTO(line, message));
+            }
+        }
+    }
+}
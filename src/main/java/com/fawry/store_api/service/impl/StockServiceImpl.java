@@ -1,6 +1,11 @@
 package com.fawry.store_api.service.impl;
 
+import com.fawry.store_api.dto.CursorPageDTO;
+import com.fawry.store_api.dto.ProductResponseDTO;
 import com.fawry.store_api.dto.StockDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateRejectionDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateResultDTO;
 import com.fawry.store_api.entity.Stock;
 import com.fawry.store_api.exception.EntityNotFoundException;
 import com.fawry.store_api.mapper.StockMapper;
@@ -8,34 +13,55 @@ import com.fawry.store_api.repository.StockRepository;
 import com.fawry.store_api.repository.StoreRepository;
 import com.fawry.store_api.service.StockService;
 import com.fawry.store_api.service.WebClientService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
-@RequiredArgsConstructor
 @Slf4j
 public class StockServiceImpl implements StockService {
     private final StockRepository stockRepository;
     private final StoreRepository storeRepository;
     private final StockMapper stockMapper;
     private final WebClientService webClientService;
+    private final int maxBatchUpdateSize;
+
+    public StockServiceImpl(StockRepository stockRepository,
+                            StoreRepository storeRepository,
+                            StockMapper stockMapper,
+                            WebClientService webClientService,
+                            @Value("${store.stock.batch-update.max-size:50000}") int maxBatchUpdateSize) {
+        this.stockRepository = stockRepository;
+        this.storeRepository = storeRepository;
+        this.stockMapper = stockMapper;
+        this.webClientService = webClientService;
+        this.maxBatchUpdateSize = maxBatchUpdateSize;
+    }
 
     @Override
     public StockDTO createStock(StockDTO stockDTO) {
+        CompletableFuture<ProductResponseDTO> productLookup = webClientService.lookupProduct(stockDTO.productId());
         validateStoreExists(stockDTO.storeId());
-        validateProductExists(stockDTO.productId());
+        webClientService.awaitProduct(productLookup, stockDTO.productId());
 
         try {
             Stock stock = getOrCreateStock(stockDTO);
-            Stock savedStock = stockRepository.save(stock);
+            boolean newStock = stock.getId() == null;
+            Stock savedStock = stockRepository.saveAndFlush(stock);
+            storeRepository.recordStockCounterDelta(stockDTO.storeId(), stockDTO.stockAvailableQuantity(), newStock ? 1 : 0);
             return stockMapper.toDTO(savedStock);
         } catch (Exception e) {
             log.error("Error creating/updating stock: {}", e.getMessage(), e);
@@ -56,14 +82,26 @@ public class StockServiceImpl implements StockService {
         return stockMapper.toDTOList(stocks);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<StockDTO> getStockByStoreId(Long storeId, String after, int limit) {
+        validateStoreExists(storeId);
+        CursorPageDTO.checkLimit(limit);
+        List<Stock> stocks = stockRepository.findPageByStoreId(storeId, CursorPageDTO.decodeCursor(after), Limit.of(limit + 1));
+        return CursorPageDTO.of(stocks, limit, Stock::getId, stockMapper::toDTOList);
+    }
+
     @Override
     public StockDTO updateStock(StockDTO stockDTO) {
-        Stock existingStock = findStockById(stockDTO.id());
-        validateProductExists(stockDTO.productId());
+        CompletableFuture<ProductResponseDTO> productLookup = webClientService.lookupProduct(stockDTO.productId());
+        webClientService.awaitProduct(productLookup, stockDTO.productId());
+        Stock existingStock = findStockForUpdate(stockDTO.id());
 
         try {
+            int previousQuantity = existingStock.getStockAvailableQuantity();
             updateStockDetails(existingStock, stockDTO);
-            Stock savedStock = stockRepository.save(existingStock);
+            Stock savedStock = stockRepository.saveAndFlush(existingStock);
+            adjustStoreQuantity(savedStock, previousQuantity);
             return stockMapper.toDTO(savedStock);
         } catch (Exception e) {
             log.error("Error updating stock: {}", e.getMessage(), e);
@@ -74,12 +112,14 @@ public class StockServiceImpl implements StockService {
     @Override
     public StockDTO updateStockQuantity(Long storeId, Long productId, Integer quantity) {
         validateQuantity(quantity);
-        Stock stock = findStockByStoreAndProduct(storeId, productId);
+        Stock stock = findStockForUpdate(storeId, productId);
 
         try {
+            int previousQuantity = stock.getStockAvailableQuantity();
             stock.setStockAvailableQuantity(quantity);
             stock.setStockLastUpdated(Instant.now());
-            Stock savedStock = stockRepository.save(stock);
+            Stock savedStock = stockRepository.saveAndFlush(stock);
+            adjustStoreQuantity(savedStock, previousQuantity);
             return stockMapper.toDTO(savedStock);
         } catch (Exception e) {
             log.error("Error updating stock quantity: {}", e.getMessage(), e);
@@ -87,11 +127,64 @@ public class StockServiceImpl implements StockService {
         }
     }
 
+    /**
+     * Applies all updates in one transaction as a single JDBC batch. The batch runs sorted by store and
+     * product id, so concurrent batches lock their stock rows in the same order and cannot deadlock;
+     * the sort is stable, so repeated lines for one row still apply in request order. Lines for
+     * unknown (storeId, productId) pairs, or that would take stock below zero, are reported back and
+     * skipped without failing the others.
+     */
+    @Override
+    public StockQuantityUpdateResultDTO updateStockQuantities(List<StockQuantityUpdateDTO> updates) {
+        if (updates.size() > maxBatchUpdateSize) {
+            throw new IllegalArgumentException("At most " + maxBatchUpdateSize + " quantity updates are allowed per request");
+        }
+
+        List<StockQuantityUpdateRejectionDTO> rejected = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            StockQuantityUpdateDTO update = updates.get(i);
+            if (update.storeId() == null || update.productId() == null || update.quantity() == null) {
+                rejected.add(rejection(i, update, "storeId, productId and quantity are required"));
+            } else if (!update.isDelta() && update.quantity() < 0) {
+                rejected.add(rejection(i, update, "Stock quantity cannot be negative"));
+            } else {
+                acceptedIndexes.add(i);
+            }
+        }
+        acceptedIndexes.sort(Comparator.comparing((Integer i) -> updates.get(i).storeId())
+                .thenComparing(i -> updates.get(i).productId()));
+        List<StockQuantityUpdateDTO> accepted = acceptedIndexes.stream().map(updates::get).toList();
+
+        int[] updated = stockRepository.updateQuantities(accepted);
+
+        List<StockQuantityUpdateDTO> skipped = new ArrayList<>();
+        List<Integer> skippedIndexes = new ArrayList<>();
+        Set<Long> storeIds = new TreeSet<>();
+        int updatedCount = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            if (updated[i] > 0) {
+                updatedCount++;
+                storeIds.add(accepted.get(i).storeId());
+            } else {
+                skipped.add(accepted.get(i));
+                skippedIndexes.add(acceptedIndexes.get(i));
+            }
+        }
+        rejected.addAll(explainSkipped(skipped, skippedIndexes));
+        rejected.sort(Comparator.comparingInt(StockQuantityUpdateRejectionDTO::index));
+
+        stockRepository.recountStores(storeIds);
+        return new StockQuantityUpdateResultDTO(updates.size(), updatedCount, rejected);
+    }
+
     @Override
     public void deleteStock(Long id) {
-        Stock stock = findStockById(id);
+        Stock stock = findStockForUpdate(id);
         try {
             stockRepository.delete(stock);
+            stockRepository.flush();
+            storeRepository.recordStockCounterDelta(stock.getStore().getId(), -stock.getStockAvailableQuantity(), -1);
             log.info("Stock with ID {} successfully deleted", id);
         } catch (Exception e) {
             log.error("Error deleting stock with ID {}: {}", id, e.getMessage());
@@ -100,20 +193,55 @@ public class StockServiceImpl implements StockService {
     }
 
 
+    /**
+     * A line updates nothing either because its stock row does not exist or because it would have
+     * taken the quantity below zero; one lookup tells the two apart.
+     */
+    private List<StockQuantityUpdateRejectionDTO> explainSkipped(List<StockQuantityUpdateDTO> skipped,
+                                                                 List<Integer> indexes) {
+        if (skipped.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> storeIds = skipped.stream().map(StockQuantityUpdateDTO::storeId).collect(Collectors.toSet());
+        Set<Long> productIds = skipped.stream().map(StockQuantityUpdateDTO::productId).collect(Collectors.toSet());
+        Set<StockKey> existing = stockRepository.findStockLevels(storeIds, productIds).stream()
+                .map(level -> new StockKey(level.storeId(), level.productId()))
+                .collect(Collectors.toSet());
+
+        List<StockQuantityUpdateRejectionDTO> rejections = new ArrayList<>(skipped.size());
+        for (int i = 0; i < skipped.size(); i++) {
+            StockQuantityUpdateDTO update = skipped.get(i);
+            String reason = existing.contains(new StockKey(update.storeId(), update.productId()))
+                    ? "Stock quantity cannot be negative"
+                    : "Stock not found";
+            rejections.add(rejection(indexes.get(i), update, reason));
+        }
+        return rejections;
+    }
+
+    private StockQuantityUpdateRejectionDTO rejection(int index, StockQuantityUpdateDTO update, String reason) {
+        return new StockQuantityUpdateRejectionDTO(index, update.storeId(), update.productId(), reason);
+    }
+
+    private record StockKey(Long storeId, Long productId) {}
+
+    /**
+     * {@code previousQuantity} must come from a row read with {@code FOR UPDATE}; from a plain read,
+     * two concurrent writers would both record a delta against the same old quantity and the store
+     * counters would drift from the stock rows.
+     */
+    private void adjustStoreQuantity(Stock stock, int previousQuantity) {
+        storeRepository.recordStockCounterDelta(stock.getStore().getId(),
+                stock.getStockAvailableQuantity() - previousQuantity, 0);
+    }
+
     private void validateStoreExists(Long storeId) {
         storeRepository.findById(storeId)
                 .orElseThrow(() -> new EntityNotFoundException("Store", storeId));
     }
 
-    private void validateProductExists(Long productId) {
-        webClientService.getProducts(Set.of(productId))
-                .stream()
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException("Product", productId));
-    }
-
     private Stock getOrCreateStock(StockDTO stockDTO) {
-        Optional<Stock> existingStock = stockRepository.findByStoreIdAndProductId(
+        Optional<Stock> existingStock = stockRepository.findForUpdateByStoreIdAndProductId(
                 stockDTO.storeId(),
                 stockDTO.productId()
         );
@@ -141,8 +269,13 @@ public class StockServiceImpl implements StockService {
                 .orElseThrow(() -> new EntityNotFoundException("Stock", id));
     }
 
-    private Stock findStockByStoreAndProduct(Long storeId, Long productId) {
-        return stockRepository.findByStoreIdAndProductId(storeId, productId)
+    private Stock findStockForUpdate(Long id) {
+        return stockRepository.findForUpdateById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Stock", id));
+    }
+
+    private Stock findStockForUpdate(Long storeId, Long productId) {
+        return stockRepository.findForUpdateByStoreIdAndProductId(storeId, productId)
                 .orElseThrow(() -> new EntityNotFoundException("Stock",
                         String.format("Store ID: %d, Product ID: %d", storeId, productId)));
     }
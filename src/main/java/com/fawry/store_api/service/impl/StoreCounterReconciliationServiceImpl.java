@@ -0,0 +1,81 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.repository.StoreRepository;
+import com.fawry.store_api.service.StoreCounterReconciliationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+@Slf4j
+public class StoreCounterReconciliationServiceImpl implements StoreCounterReconciliationService {
+
+    private final StoreRepository storeRepository;
+    private final StockRepository stockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int foldBatchSize;
+    private final int batchSize;
+
+    public StoreCounterReconciliationServiceImpl(StoreRepository storeRepository,
+                                                 StockRepository stockRepository,
+                                                 TransactionTemplate transactionTemplate,
+                                                 @Value("${store.counters.fold.batch-size:5000}") int foldBatchSize,
+                                                 @Value("${store.counters.reconcile.batch-size:500}") int batchSize) {
+        this.storeRepository = storeRepository;
+        this.stockRepository = stockRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.foldBatchSize = foldBatchSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Moves pending counter deltas into the store rows. This is the only writer of the counter columns,
+     * so each store row is updated once per batch instead of once per stock write, and reads stay cheap
+     * because few deltas are ever pending.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${store.counters.fold.interval:5s}", fixedDelayString = "${store.counters.fold.interval:5s}")
+    public int foldStockCounterDeltas() {
+        int folded = 0;
+        Integer batch;
+        do {
+            batch = transactionTemplate.execute(status -> storeRepository.foldStockCounterDeltas(foldBatchSize));
+            folded += batch == null ? 0 : batch;
+        } while (batch != null && batch == foldBatchSize);
+        return folded;
+    }
+
+    /**
+     * Corrects stock counters that drifted from the stock rows, for example after a lost update between
+     * two concurrent writes to the same stock row. Corrections are appended as deltas like any other
+     * counter change, so the sweep takes no lock on the store rows.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${store.counters.reconcile.interval:15m}")
+    public int reconcileStockCounters() {
+        int corrected = 0;
+        long afterId = 0L;
+        List<Long> storeIds;
+        do {
+            storeIds = storeRepository.findIdsAfter(afterId, Limit.of(batchSize));
+            if (storeIds.isEmpty()) {
+                break;
+            }
+            List<Long> batch = storeIds;
+            Integer drifted = transactionTemplate.execute(status -> stockRepository.recountStores(batch));
+            if (drifted != null && drifted > 0) {
+                log.warn("Corrected drifted stock counters of {} stores between ids {} and {}",
+                        drifted, storeIds.getFirst(), storeIds.getLast());
+                corrected += drifted;
+            }
+            afterId = storeIds.getLast();
+        } while (storeIds.size() == batchSize);
+        return corrected;
+    }
+}
@@ -6,15 +6,17 @@ import com.fawry.kafka.events.OrderCreatedEventDTO;
 import com.fawry.kafka.events.StoreCreatedEventDTO;
 import com.fawry.kafka.producers.StoreCancellationPublisher;
 import com.fawry.kafka.producers.StoreUpdatedPublisher;
+import com.fawry.store_api.dto.CursorPageDTO;
 import com.fawry.store_api.dto.ProductResponseDTO;
+import com.fawry.store_api.dto.StockAdjustmentDTO;
 import com.fawry.store_api.dto.StoreDTO;
-import com.fawry.store_api.entity.InventoryReservation;
 import com.fawry.store_api.entity.Stock;
 import com.fawry.store_api.entity.Store;
 import com.fawry.store_api.enums.ReservationStatus;
 import com.fawry.store_api.exception.EntityAlreadyExistsException;
 import com.fawry.store_api.exception.EntityNotFoundException;
 import com.fawry.store_api.exception.InsufficientInventoryException;
+import com.fawry.store_api.exception.InvalidOrderException;
 import com.fawry.store_api.mapper.StoreMapper;
 import com.fawry.store_api.repository.InventoryReservationRepository;
 import com.fawry.store_api.repository.StockRepository;
@@ -22,19 +24,25 @@ import com.fawry.store_api.repository.StoreRepository;
 import com.fawry.store_api.service.StoreService;
 import com.fawry.store_api.service.WebClientService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.annotation.TopicPartition;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.fawry.store_api.enums.ReservationStatus.CANCELED;
@@ -44,6 +52,14 @@ import static com.fawry.store_api.enums.ReservationStatus.RESERVED;
 @Transactional
 @Slf4j
 public class StoreServiceImpl implements StoreService {
+    /**
+     * Reservations and releases update, and so lock, their stock rows in this order, so two of them
+     * touching the same rows can never wait on each other in a cycle.
+     */
+    private static final Comparator<StockAdjustmentDTO> STOCK_LOCK_ORDER = Comparator
+            .comparing(StockAdjustmentDTO::storeId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(StockAdjustmentDTO::productId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
     private final StoreRepository storeRepository;
     private final StoreMapper storeMapper;
     private final StockRepository stockRepository;
@@ -51,6 +67,7 @@ public class StoreServiceImpl implements StoreService {
     private final InventoryReservationRepository inventoryReservationRepository;
     private final StoreCancellationPublisher storeCancellationPublisher;
     private final StoreUpdatedPublisher storeUpdatedPublisher;
+    private final MeterRegistry meterRegistry;
 
     @Value("${custom.merchant.email}")
     private String merchantEmail;
@@ -61,7 +78,8 @@ public class StoreServiceImpl implements StoreService {
                             WebClientService webClientService,
                             InventoryReservationRepository inventoryReservationRepository,
                             StoreCancellationPublisher storeCancellationPublisher,
-                            StoreUpdatedPublisher storeUpdatedPublisher) {
+                            StoreUpdatedPublisher storeUpdatedPublisher,
+                            MeterRegistry meterRegistry) {
         this.storeRepository = storeRepository;
         this.storeMapper = storeMapper;
         this.stockRepository = stockRepository;
@@ -69,47 +87,52 @@ public class StoreServiceImpl implements StoreService {
         this.inventoryReservationRepository = inventoryReservationRepository;
         this.storeCancellationPublisher = storeCancellationPublisher;
         this.storeUpdatedPublisher = storeUpdatedPublisher;
+        this.meterRegistry = meterRegistry;
     }
 
+    /**
+     * An order short of stock, or with a line that is not a positive quantity of a known store and product,
+     * is a business outcome: its cancellation is published and the transaction commits. Anything else, such as a failed statement, propagates so the transaction rolls back
+     * instead of committing the order's partial writes.
+     */
     @Override
     @Transactional
-    @KafkaListener(topics = "order-events", groupId = "store_order_id", topicPartitions = {
-            @TopicPartition(topic = "order-events", partitions = {"0", "1", "2", "4"}
-            )})
+    @KafkaListener(topics = "order-events", groupId = "store_order_id",
+            concurrency = "${store.kafka.order-events.concurrency:3}",
+            autoStartup = "#{!${store.kafka.order-events.batch.enabled:false}}")
     public void reserveStore(OrderCreatedEventDTO order) {
         Long orderId = order.getOrderId();
         log.info("Consume order created event successfully {}", order);
-        List<OrderItemDTO> orderItems = order.getOrderItems();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "reserved";
 
-        List<InventoryReservation> reservations = new ArrayList<>();
         try {
-            for (OrderItemDTO orderItem : orderItems) {
-                Long storeId = orderItem.getStoreId();
-                Long productId = orderItem.getProductId();
-                int quantity = orderItem.getQuantity();
-
-                Stock stock = getStock(storeId, productId);
-                int availableQuantity = getAvailableInventory(stock);
-
-                if (availableQuantity < quantity) {
-                    String customerEmail = order.getCustomerEmail();
-                    OrderCanceledEventDTO orderCanceledEventDTO = new OrderCanceledEventDTO(orderId, "Not enough inventory for product " + productId, customerEmail);
-                    cancelReservation(orderCanceledEventDTO);
-                    throw new InsufficientInventoryException("Not enough inventory for product " + productId);
-                }
+            List<StockAdjustmentDTO> lines = coalesceOrderItems(order);
 
-                stock.setStockAvailableQuantity(stock.getStockAvailableQuantity() - quantity);
-                stockRepository.save(stock);
+            Long shortProductId = findShortProduct(lines);
+            if (shortProductId != null) {
+                countInsufficientInventory("stock_check");
+                rejectOrder(order, shortProductId);
+            }
 
-                var inventoryReservation = new InventoryReservation();
-                inventoryReservation.setProductId(productId);
-                inventoryReservation.setOrderId(orderId);
-                inventoryReservation.setReservedQuantity(quantity);
-                inventoryReservation.setStatus(RESERVED);
-                inventoryReservationRepository.save(inventoryReservation);
-                reservations.add(inventoryReservation);
+            int[] decremented = stockRepository.decrementAllIfAvailable(lines);
+            List<StockAdjustmentDTO> applied = new ArrayList<>(lines.size());
+            Long raceLostProductId = null;
+            for (int i = 0; i < lines.size(); i++) {
+                if (decremented[i] > 0) {
+                    applied.add(lines.get(i));
+                } else if (raceLostProductId == null) {
+                    raceLostProductId = lines.get(i).productId();
+                }
+            }
+            if (raceLostProductId != null) {
+                stockRepository.incrementAll(applied);
+                countInsufficientInventory("concurrent_update");
+                rejectOrder(order, raceLostProductId);
             }
 
+            inventoryReservationRepository.insertReservations(orderId, lines);
+
             StoreCreatedEventDTO storeCreatedEventDTO = new StoreCreatedEventDTO(
                     orderId, order.getUserId(),
                     RESERVED.name(), order.getCustomerEmail(),
@@ -121,40 +144,139 @@ public class StoreServiceImpl implements StoreService {
             );
             storeUpdatedPublisher.publishStoreUpdatedEvent(storeCreatedEventDTO);
 
-        } catch (Exception e) {
-            log.error("Failed to reserve stock for orderId: {}. Error: {}", orderId, e.getMessage(), e);
+        } catch (InsufficientInventoryException e) {
+            outcome = "insufficient_inventory";
+            log.warn("Rejected orderId: {}. {}", orderId, e.getMessage());
+        } catch (InvalidOrderException e) {
+            outcome = "invalid";
+            log.warn("Rejected orderId: {}. {}", orderId, e.getMessage());
+        } catch (RuntimeException e) {
+            outcome = "failed";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("store.reservation.reserve")
+                    .description("Time to reserve the stock of one order")
+                    .tag("outcome", outcome)
+                    .tag("order.size", orderSize(order.getOrderItems()))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
     }
 
     @Override
     @Transactional
-    @KafkaListener(topics = "payment-canceled-events", groupId = "store_payment_id")
+    @KafkaListener(topics = "payment-canceled-events", groupId = "store_payment_id",
+            concurrency = "${store.kafka.payment-canceled-events.concurrency:1}")
     public void cancelReservation(OrderCanceledEventDTO orderCanceledEventDTO) {
         long orderId = orderCanceledEventDTO.getOrderId();
-        List<InventoryReservation> inventoryReservations = inventoryReservationRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new EntityNotFoundException("InventoryReservation not found with id", orderId));
-
-        for (InventoryReservation inventoryReservation : inventoryReservations) {
-            Long productId = inventoryReservation.getProductId();
-            int reserveQuantity = inventoryReservation.getReservedQuantity();
-            Stock stock = stockRepository.findByProductId(productId)
-                    .orElseThrow(() -> new EntityNotFoundException("Stock not found with product id", productId));
-            stock.setStockAvailableQuantity(stock.getStockAvailableQuantity() + reserveQuantity);
-            inventoryReservation.setStatus(CANCELED);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failed";
+        try {
+            outcome = releaseReservations(orderCanceledEventDTO) ? "released" : "nothing_reserved";
+        } finally {
+            sample.stop(Timer.builder("store.reservation.cancel")
+                    .description("Time to release the reservations of one canceled order")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private boolean releaseReservations(OrderCanceledEventDTO orderCanceledEventDTO) {
+        long orderId = orderCanceledEventDTO.getOrderId();
+        List<StockAdjustmentDTO> released = inventoryReservationRepository.releaseReservations(orderId, CANCELED);
+
+        List<StockAdjustmentDTO> restocks = new ArrayList<>(released.size());
+        for (StockAdjustmentDTO reservation : released) {
+            if (reservation.storeId() == null) {
+                log.warn("Cannot restock product {} for orderId: {}, reservation has no store", reservation.productId(), orderId);
+            } else {
+                restocks.add(reservation);
+            }
         }
+        restocks.sort(STOCK_LOCK_ORDER);
+        stockRepository.incrementAll(restocks);
 
         storeCancellationPublisher.publishOrderCanceledEvent(orderCanceledEventDTO);
+        return !released.isEmpty();
+    }
+
+    private void countInsufficientInventory(String stage) {
+        meterRegistry.counter("store.reservation.insufficient.inventory", "stage", stage).increment();
+    }
+
+    /**
+     * Buckets the number of order lines so the reservation timer keeps a small, fixed set of series.
+     */
+    private static String orderSize(List<OrderItemDTO> orderItems) {
+        int size = orderItems == null ? 0 : orderItems.size();
+        if (size <= 1) {
+            return "1";
+        }
+        if (size <= 5) {
+            return "2-5";
+        }
+        return size <= 20 ? "6-20" : "21+";
+    }
+
+    /**
+     * Merges repeated (store, product) lines and sorts them into {@link #STOCK_LOCK_ORDER}, so two orders
+     * listing the same products in opposite order still lock their stock rows in the same sequence.
+     * The order is rejected before anything is written if a line is not a positive quantity: a negative
+     * line would otherwise add stock when decremented.
+     */
+    private List<StockAdjustmentDTO> coalesceOrderItems(OrderCreatedEventDTO order) {
+        List<OrderItemDTO> orderItems = order.getOrderItems();
+        if (orderItems == null || orderItems.isEmpty()) {
+            rejectInvalidOrder(order, "Order has no items");
+        }
+        Map<StockKey, Integer> quantities = new HashMap<>();
+        for (OrderItemDTO orderItem : orderItems) {
+            if (orderItem.getStoreId() == null || orderItem.getProductId() == null) {
+                rejectInvalidOrder(order, "Order item without store or product");
+            }
+            if (orderItem.getQuantity() == null || orderItem.getQuantity() <= 0) {
+                rejectInvalidOrder(order, "Invalid quantity " + orderItem.getQuantity() + " for product " + orderItem.getProductId());
+            }
+            quantities.merge(new StockKey(orderItem.getStoreId(), orderItem.getProductId()),
+                    orderItem.getQuantity(), Integer::sum);
+        }
+        return quantities.entrySet().stream()
+                .map(entry -> new StockAdjustmentDTO(entry.getKey().storeId(), entry.getKey().productId(), entry.getValue()))
+                .sorted(STOCK_LOCK_ORDER)
+                .toList();
+    }
+
+    private Long findShortProduct(List<StockAdjustmentDTO> lines) {
+        Set<Long> storeIds = lines.stream().map(StockAdjustmentDTO::storeId).collect(Collectors.toSet());
+        Set<Long> productIds = lines.stream().map(StockAdjustmentDTO::productId).collect(Collectors.toSet());
+
+        Map<StockKey, Integer> available = stockRepository.findStockLevels(storeIds, productIds).stream()
+                .collect(Collectors.toMap(level -> new StockKey(level.storeId(), level.productId()),
+                        StockAdjustmentDTO::quantity));
+
+        return lines.stream()
+                .filter(line -> available.getOrDefault(new StockKey(line.storeId(), line.productId()), 0) < line.quantity())
+                .map(StockAdjustmentDTO::productId)
+                .findFirst()
+                .orElse(null);
     }
 
-    private Stock getStock(long storeId, long productId){
-        return stockRepository.findByStoreIdAndProductId(storeId, productId).
-                orElseThrow(() -> new RuntimeException("Stock not found for product " + productId));
+    private void rejectOrder(OrderCreatedEventDTO order, Long productId) {
+        String customerEmail = order.getCustomerEmail();
+        OrderCanceledEventDTO orderCanceledEventDTO = new OrderCanceledEventDTO(order.getOrderId(), "Not enough inventory for product " + productId, customerEmail);
+        cancelReservation(orderCanceledEventDTO);
+        throw new InsufficientInventoryException("Not enough inventory for product " + productId);
     }
 
-    private int getAvailableInventory(Stock stock) {
-        return stock.getStockAvailableQuantity();
+    private void rejectInvalidOrder(OrderCreatedEventDTO order, String reason) {
+        storeCancellationPublisher.publishOrderCanceledEvent(
+                new OrderCanceledEventDTO(order.getOrderId(), reason, order.getCustomerEmail()));
+        throw new InvalidOrderException(reason);
     }
 
+    private record StockKey(Long storeId, Long productId) {}
+
     @Override
     public StoreDTO createStore(StoreDTO storeDTO) {
         storeRepository.findByName(storeDTO.name())
@@ -172,27 +294,12 @@ public class StoreServiceImpl implements StoreService {
         Store store = storeRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Store", id));
 
-        List<Stock> stocks = stockRepository.findByStoreId(id);
-        int totalStockItems = stocks.size();
-        int productCount = calculateTotalAvailableQuantity(stocks);
-
-        return storeMapper.toDTO(store, productCount, totalStockItems);
+        return storeMapper.toDTO(store);
     }
 
     @Override
     public List<StoreDTO> getAllStores() {
-        List<Store> stores = storeRepository.findAll();
-
-        List<Integer> productCounts = stores.stream()
-                .map(store -> calculateTotalAvailableQuantity(
-                        stockRepository.findByStoreId(store.getId())))
-                .collect(Collectors.toList());
-
-        List<Integer> totalStockItems = stores.stream()
-                .map(store -> stockRepository.findByStoreId(store.getId()).size())
-                .collect(Collectors.toList());
-
-        return storeMapper.toDTOList(stores, productCounts, totalStockItems);
+        return storeMapper.toDTOList(storeRepository.findAll());
     }
 
     @Override
@@ -211,11 +318,7 @@ public class StoreServiceImpl implements StoreService {
         existingStore.setAddress(storeDTO.address());
         Store updatedStore = storeRepository.save(existingStore);
 
-        List<Stock> stocks = stockRepository.findByStoreId(updatedStore.getId());
-        int totalStockItems = stocks.size();
-        int productCount = calculateTotalAvailableQuantity(stocks);
-
-        return storeMapper.toDTO(updatedStore, productCount, totalStockItems);
+        return storeMapper.toDTO(updatedStore);
     }
 
     @Override
@@ -223,11 +326,7 @@ public class StoreServiceImpl implements StoreService {
         Store store = storeRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Store", id));
 
-        List<Stock> stocks = stockRepository.findByStoreId(id);
-        if (!stocks.isEmpty()) {
-            stockRepository.deleteAll(stocks);
-        }
-
+        stockRepository.deleteAllByStoreId(id);
         storeRepository.delete(store);
     }
 
@@ -249,9 +348,26 @@ public class StoreServiceImpl implements StoreService {
         return new PageImpl<>(products, pageable, stocks.getTotalElements());
     }
 
-    private int calculateTotalAvailableQuantity(List<Stock> stocks) {
+    @Override
+    public CursorPageDTO<ProductResponseDTO> getStoreProducts(Long storeId, String after, int limit) {
+        storeRepository.findById(storeId)
+                .orElseThrow(() -> new EntityNotFoundException("Store", storeId));
+        CursorPageDTO.checkLimit(limit);
+
+        List<Stock> stocks = stockRepository.findPageByStoreId(storeId, CursorPageDTO.decodeCursor(after), Limit.of(limit + 1));
+        return CursorPageDTO.of(stocks, limit, Stock::getId, this::toProducts);
+    }
+
+    private List<ProductResponseDTO> toProducts(List<Stock> stocks) {
+        Set<Long> productIds = stocks.stream()
+                .map(Stock::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, ProductResponseDTO> products = webClientService.getProducts(productIds).stream()
+                .collect(Collectors.toMap(ProductResponseDTO::id, Function.identity()));
+
         return stocks.stream()
-                .mapToInt(Stock::getStockAvailableQuantity)
-                .sum();
+                .map(stock -> products.get(stock.getProductId()))
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
\ No newline at end of file
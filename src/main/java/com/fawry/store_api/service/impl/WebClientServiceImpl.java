@@ -1,83 +1,106 @@
 package com.fawry.store_api.service.impl;
 
 import com.fawry.store_api.dto.ProductResponseDTO;
+import com.fawry.store_api.exception.EntityNotFoundException;
+import com.fawry.store_api.service.ReactiveWebClientService;
 import com.fawry.store_api.service.WebClientService;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Service
+@RequiredArgsConstructor
 public class WebClientServiceImpl implements WebClientService {
 
-    private final WebClient webClient;
-
-    public WebClientServiceImpl(@Value("${product.api.base-url:http://localhost:6061}") String productApiBaseUrl) {
-        this.webClient = WebClient.create(productApiBaseUrl);
-    }
+    private final ReactiveWebClientService reactiveWebClientService;
+    private final MeterRegistry meterRegistry;
 
+    /**
+     * Timed end to end, cache hits included; the HTTP calls behind cache misses show up separately
+     * as {@code http.client.requests}.
+     */
     @Override
     public List<ProductResponseDTO> getProducts(Set<Long> productIds) {
         if (productIds == null || productIds.isEmpty()) {
             return List.of();
         }
 
-        String ids = productIds.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
-            return webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/api/products")
-                            .build())
-                    .retrieve()
-                    .bodyToFlux(ProductResponseDTO.class)
+            List<ProductResponseDTO> products = reactiveWebClientService.getProducts(productIds)
                     .collectList()
-                    .block()
-                    .stream()
-                    .filter(productResponseDTO ->
-                            productIds.contains(productResponseDTO.id()))
-                    .toList();
-        } catch (WebClientResponseException e) {
-            throw new ResponseStatusException(
-                    HttpStatus.valueOf(e.getStatusCode().value()),
-                    "Error fetching products: " + e.getMessage(),
-                    e
-            );
+                    .block();
+            outcome = "success";
+            recordPayload("requested", productIds.size());
+            recordPayload("returned", products == null ? 0 : products.size());
+            return products;
+        } finally {
+            sample.stop(callTimer("getProducts", outcome));
         }
     }
 
     @Override
     public void checkIfProductsExist(Long productId) {
-        if (productId == null) {
-            throw new IllegalArgumentException("Product ID cannot be null");
-        }
-
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
-            webClient.get()
-                    .uri("/api/products/{id}", productId)
-                    .retrieve()
-                    .toBodilessEntity()
+            reactiveWebClientService.checkIfProductsExist(productId)
                     .block();
-        } catch (WebClientResponseException e) {
-            if (e.getStatusCode().is4xxClientError()) {
-                throw new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Product with ID " + productId + " not found"
-                );
-            }
-            throw new ResponseStatusException(
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Error checking product existence: " + e.getMessage(),
-                    e
-            );
+            outcome = "success";
+        } finally {
+            sample.stop(callTimer("checkIfProductsExist", outcome));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Timed from the start of the lookup until the product arrives, not while the caller waits for it.
+     */
+    @Override
+    public CompletableFuture<ProductResponseDTO> lookupProduct(Long productId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return reactiveWebClientService.getProducts(Set.of(productId))
+                .next()
+                .toFuture()
+                .whenComplete((product, error) -> {
+                    sample.stop(callTimer("lookupProduct", error == null ? "success" : "error"));
+                    if (error == null) {
+                        recordPayload("requested", 1);
+                        recordPayload("returned", product == null ? 0 : 1);
+                    }
+                });
+    }
+
+    @Override
+    public ProductResponseDTO awaitProduct(CompletableFuture<ProductResponseDTO> productLookup, Long productId) {
+        return Mono.fromFuture(productLookup)
+                .blockOptional()
+                .orElseThrow(() -> new EntityNotFoundException("Product", productId));
+    }
+
+    private Timer callTimer(String method, String outcome) {
+        return Timer.builder("store.product.client")
+                .description("Blocking calls to the product client")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void recordPayload(String direction, int products) {
+        DistributionSummary.builder("store.product.client.payload")
+                .description("Products requested from and returned by the product client per call")
+                .baseUnit("products")
+                .tag("direction", direction)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(products);
+    }
+}
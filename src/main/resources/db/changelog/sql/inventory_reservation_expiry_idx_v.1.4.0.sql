@@ -0,0 +1,3 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inventory_reservation_reserved_last_updated
+    ON inventory_reservation (reserve_inventory_last_updated)
+    WHERE status = 'RESERVED';
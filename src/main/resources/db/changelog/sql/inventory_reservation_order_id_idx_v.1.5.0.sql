@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inventory_reservation_order_id
+    ON inventory_reservation (order_id);
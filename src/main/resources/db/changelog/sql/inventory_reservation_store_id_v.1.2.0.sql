@@ -0,0 +1,8 @@
+ALTER TABLE inventory_reservation
+    ADD COLUMN store_id BIGINT;
+
+UPDATE inventory_reservation r
+SET store_id = s.store_id
+FROM stock s
+WHERE s.product_id = r.product_id
+  AND (SELECT count(*) FROM stock s2 WHERE s2.product_id = r.product_id) = 1;
@@ -0,0 +1,21 @@
+CREATE TABLE product_consumption_daily (
+    store_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    consumption_day DATE NOT NULL,
+    total_quantity BIGINT NOT NULL DEFAULT 0,
+    total_revenue NUMERIC(19,2) NOT NULL DEFAULT 0,
+    consumption_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (store_id, product_id, consumption_day),
+    FOREIGN KEY (store_id) REFERENCES stores(store_id) ON DELETE CASCADE
+);
+
+INSERT INTO product_consumption_daily
+    (store_id, product_id, consumption_day, total_quantity, total_revenue, consumption_count)
+SELECT store_id,
+       product_id,
+       CAST(consumption_date AS DATE),
+       SUM(consumption_quantity),
+       COALESCE(SUM(consumption_quantity * product_price), 0),
+       COUNT(*)
+FROM product_consumptions
+GROUP BY store_id, product_id, CAST(consumption_date AS DATE);
@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_consumptions_store_date_id
+    ON product_consumptions (store_id, consumption_date, consumption_id);
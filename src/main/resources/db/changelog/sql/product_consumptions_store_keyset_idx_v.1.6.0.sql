@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_consumptions_store_consumption_id
+    ON product_consumptions (store_id, consumption_id);
@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_consumptions_store_product_date
+    ON product_consumptions (store_id, product_id, consumption_date);
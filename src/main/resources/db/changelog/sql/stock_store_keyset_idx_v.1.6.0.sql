@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stock_store_stock_id
+    ON stock (store_id, stock_id);
@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stock_store_product
+    ON stock (store_id, product_id);
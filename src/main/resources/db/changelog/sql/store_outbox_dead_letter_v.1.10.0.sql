@@ -0,0 +1,11 @@
+CREATE TABLE store_outbox_dead_letter (
+    outbox_id BIGINT PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    partition_no INT,
+    message_key VARCHAR(255),
+    event_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    error TEXT
+);
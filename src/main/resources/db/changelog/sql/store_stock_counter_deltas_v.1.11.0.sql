@@ -0,0 +1,8 @@
+CREATE TABLE store_stock_counter_deltas (
+    delta_id BIGSERIAL PRIMARY KEY,
+    store_id BIGINT NOT NULL,
+    quantity_delta BIGINT NOT NULL,
+    item_delta INT NOT NULL
+);
+
+CREATE INDEX idx_store_stock_counter_deltas_store_id ON store_stock_counter_deltas (store_id);
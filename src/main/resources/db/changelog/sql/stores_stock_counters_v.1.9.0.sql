@@ -0,0 +1,11 @@
+ALTER TABLE stores
+    ADD COLUMN stock_quantity BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN stock_item_count INT NOT NULL DEFAULT 0;
+
+UPDATE stores st
+SET stock_quantity = totals.quantity,
+    stock_item_count = totals.items
+FROM (SELECT store_id, SUM(stock_available_quantity) AS quantity, COUNT(*) AS items
+      FROM stock
+      GROUP BY store_id) totals
+WHERE st.store_id = totals.store_id;
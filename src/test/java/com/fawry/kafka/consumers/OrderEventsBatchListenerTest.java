@@ -0,0 +1,55 @@
+package com.fawry.kafka.consumers;
+
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.store_api.service.StoreService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OrderEventsBatchListenerTest {
+
+    private final StoreService storeService = mock(StoreService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OrderEventsBatchListener listener =
+            new OrderEventsBatchListener(storeService, new TransactionTemplate(transactionManager), 2);
+
+    @Test
+    void anOrderThatFailsOnItsOwnIsHandedToTheErrorHandlerWithItsIndex() {
+        List<OrderCreatedEventDTO> orders = LongStream.rangeClosed(1, 5).mapToObj(OrderEventsBatchListenerTest::order).toList();
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+                .when(storeService).reserveStore(argThat(order -> order != null && order.getOrderId() == 4L));
+
+        BatchListenerFailedException failure = catchThrowableOfType(BatchListenerFailedException.class,
+                () -> listener.reserveStores(orders));
+
+        assertThat(failure.getIndex()).isEqualTo(3);
+        assertThat(failure).hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+        // the first group commits; the failing group is rolled back and replayed one order at a time
+        verify(storeService).reserveStore(orders.get(0));
+        verify(storeService).reserveStore(orders.get(1));
+        verify(storeService, times(2)).reserveStore(orders.get(2));
+        verify(storeService, times(2)).reserveStore(orders.get(3));
+        verify(storeService, never()).reserveStore(orders.get(4));
+        verify(transactionManager).rollback(any());
+    }
+
+    private static OrderCreatedEventDTO order(long orderId) {
+        return OrderCreatedEventDTO.newInstance(orderId, 1L, "ORDER_CREATED", "CREATED",
+                "customer@store.test", "Customer", "0100", null, null, List.of(), null);
+    }
+}
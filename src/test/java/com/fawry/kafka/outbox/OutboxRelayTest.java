@@ -0,0 +1,94 @@
+package com.fawry.kafka.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fawry.kafka.events.OrderCanceledEventDTO;
+import com.fawry.store_api.entity.OutboxEvent;
+import com.fawry.store_api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    private static final String TOPIC = "store-events";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deletesAckedEventsRetriesTransientFailuresAndDeadLettersRejectedOnes() throws Exception {
+        OutboxEvent acked = enqueue("acked", "1");
+        OutboxEvent retriable = enqueue("retriable", "1");
+        OutboxEvent rejected = enqueue("rejected", "1");
+        OutboxEvent unacked = enqueue("unacked", "1");
+        OutboxEvent ackedBehindRetry = enqueue("acked", "1");
+        OutboxEvent ackedOtherKey = enqueue("acked", "2");
+
+        KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, Object> record = invocation.getArgument(0);
+            return switch (((OrderCanceledEventDTO) record.value()).getReason()) {
+                case "acked" -> CompletableFuture.completedFuture(new SendResult<>(record, null));
+                case "retriable" -> CompletableFuture.failedFuture(new NetworkException("broker went away"));
+                case "rejected" -> CompletableFuture.failedFuture(new RecordTooLargeException("too large"));
+                default -> new CompletableFuture<>();
+            };
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, objectMapper,
+                new TransactionTemplate(transactionManager), meterRegistry, 10, 200);
+
+        relay.relay();
+
+        // the acked event behind the retried one with the same key is kept so it is sent again after it
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getId)
+                .containsExactlyInAnyOrder(retriable.getId(), unacked.getId(), ackedBehindRetry.getId());
+        assertThat(jdbcTemplate.queryForList("SELECT outbox_id FROM store_outbox_dead_letter", Long.class))
+                .containsExactly(rejected.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT error FROM store_outbox_dead_letter WHERE outbox_id = ?",
+                String.class, rejected.getId())).contains("RecordTooLargeException");
+        assertThat(outboxEventRepository.existsById(acked.getId())).isFalse();
+        assertThat(outboxEventRepository.existsById(ackedOtherKey.getId())).isFalse();
+        assertThat(meterRegistry.get("store.outbox.dead.letter").tag("topic", TOPIC).counter().count()).isEqualTo(1);
+    }
+
+    private OutboxEvent enqueue(String outcome, String key) throws Exception {
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .topic(TOPIC)
+                .messageKey(key)
+                .eventType(OrderCanceledEventDTO.class.getName())
+                .payload(objectMapper.writeValueAsString(new OrderCanceledEventDTO(1L, outcome, "customer@store.test")))
+                .build());
+    }
+}
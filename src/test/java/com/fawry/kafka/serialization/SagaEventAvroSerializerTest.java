@@ -0,0 +1,132 @@
+package com.fawry.kafka.serialization;
+
+import com.fawry.kafka.dto.AddressDetails;
+import com.fawry.kafka.dto.OrderItemDTO;
+import com.fawry.kafka.dto.PaymentDetails;
+import com.fawry.kafka.dto.PaymentMethod;
+import com.fawry.kafka.events.OrderCanceledEventDTO;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.kafka.events.StoreCreatedEventDTO;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.DelegatingByTopicDeserializer;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SagaEventAvroSerializerTest {
+
+    private static final String AVRO_TOPIC = "order-events";
+    private static final String JSON_TOPIC = "store-events";
+
+    private final SagaEventAvroCodec codec = new SagaEventAvroCodec();
+
+    @Test
+    void eventsRoundTripThroughAvro() {
+        SagaEventAvroSerializer serializer = new SagaEventAvroSerializer(codec);
+        SagaEventAvroDeserializer deserializer = new SagaEventAvroDeserializer(codec);
+
+        OrderCreatedEventDTO orderCreated = orderCreated(3);
+        Object decoded = deserializer.deserialize(AVRO_TOPIC, serializer.serialize(AVRO_TOPIC, orderCreated));
+        assertThat(decoded).isInstanceOf(OrderCreatedEventDTO.class)
+                .usingRecursiveComparison()
+                .isEqualTo(orderCreated);
+
+        StoreCreatedEventDTO storeCreated = new StoreCreatedEventDTO(7L, 11L, "RESERVED", "c@shop.test", "Customer",
+                "0100", null, new BigDecimal("-12.500"), new PaymentMethod(null), "merchant@store.test");
+        decoded = deserializer.deserialize(AVRO_TOPIC, serializer.serialize(AVRO_TOPIC, storeCreated));
+        assertThat(decoded).isInstanceOf(StoreCreatedEventDTO.class)
+                .usingRecursiveComparison()
+                .isEqualTo(storeCreated);
+
+        OrderCanceledEventDTO orderCanceled = OrderCanceledEventDTO.newInstance(7L, "Payment failed", null);
+        decoded = deserializer.deserialize(AVRO_TOPIC, serializer.serialize(AVRO_TOPIC, orderCanceled));
+        assertThat(decoded).isInstanceOf(OrderCanceledEventDTO.class)
+                .usingRecursiveComparison()
+                .isEqualTo(orderCanceled);
+    }
+
+    @Test
+    void onlyConfiguredTopicsSwitchToAvro() {
+        Serializer<Object> serializer = delegatingSerializer();
+        Deserializer<Object> deserializer = delegatingDeserializer();
+        OrderCanceledEventDTO event = OrderCanceledEventDTO.newInstance(9L, "Out of stock", "c@shop.test");
+
+        RecordHeaders avroHeaders = new RecordHeaders();
+        byte[] avro = serializer.serialize(AVRO_TOPIC, avroHeaders, event);
+        assertThat(avro[0]).isEqualTo(SagaEventAvroCodec.MAGIC_BYTE);
+        assertThat(deserializer.deserialize(AVRO_TOPIC, avroHeaders, avro))
+                .usingRecursiveComparison()
+                .isEqualTo(event);
+
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        byte[] json = serializer.serialize(JSON_TOPIC, jsonHeaders, event);
+        assertThat((char) json[0]).isEqualTo('{');
+        assertThat(deserializer.deserialize(JSON_TOPIC, jsonHeaders, json))
+                .usingRecursiveComparison()
+                .isEqualTo(event);
+    }
+
+    /**
+     * The binary format must pay off on the wire; serialization speed is compared in the JMH
+     * {@code EventSerializationBenchmark}.
+     */
+    @Test
+    void avroPayloadsAreSmallerThanJson() {
+        Serializer<Object> serializer = delegatingSerializer();
+        Deserializer<Object> deserializer = delegatingDeserializer();
+        List<OrderCreatedEventDTO> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(orderCreated(1 + i % 10));
+        }
+
+        assertThat(payloadBytes(serializer, deserializer, AVRO_TOPIC, events))
+                .isLessThan(payloadBytes(serializer, deserializer, JSON_TOPIC, events) / 2);
+    }
+
+    private long payloadBytes(Serializer<Object> serializer, Deserializer<Object> deserializer,
+                              String topic, List<OrderCreatedEventDTO> events) {
+        long bytes = 0;
+        for (OrderCreatedEventDTO event : events) {
+            RecordHeaders headers = new RecordHeaders();
+            byte[] data = serializer.serialize(topic, headers, event);
+            assertThat(deserializer.deserialize(topic, headers, data))
+                    .usingRecursiveComparison()
+                    .isEqualTo(event);
+            bytes += data.length;
+        }
+        return bytes;
+    }
+
+    private Serializer<Object> delegatingSerializer() {
+        JsonSerializer<Object> json = new JsonSerializer<>();
+        json.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, true), false);
+        return new DelegatingByTopicSerializer(Map.of(Pattern.compile(AVRO_TOPIC), new SagaEventAvroSerializer(codec)), json);
+    }
+
+    private Deserializer<Object> delegatingDeserializer() {
+        JsonDeserializer<Object> json = new JsonDeserializer<>();
+        json.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.fawry.kafka.events"), false);
+        return new DelegatingByTopicDeserializer(Map.of(Pattern.compile(AVRO_TOPIC), new SagaEventAvroDeserializer(codec)), json);
+    }
+
+    private static OrderCreatedEventDTO orderCreated(int items) {
+        List<OrderItemDTO> orderItems = new ArrayList<>();
+        for (long i = 1; i <= items; i++) {
+            orderItems.add(new OrderItemDTO(i, 1000 + i, (int) i, new BigDecimal("19.99").multiply(BigDecimal.valueOf(i))));
+        }
+        return new OrderCreatedEventDTO(42L, 5L, "ORDER_CREATED", "CREATED", "c@shop.test", "Customer", "0100",
+                new AddressDetails("Cairo", "Nasr City", "12 Street"), new BigDecimal("1234.50"), orderItems,
+                new PaymentMethod(new PaymentDetails("4111111111111111", "123", "12/30")));
+    }
+}
@@ -0,0 +1,366 @@
+package com.fawry.store_api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.store_api.repository.StockRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Release benchmark for the two load paths: orders/second through the reserveStore listener, measured
+ * from producing order-created events to seeing the reserved or canceled outcome on the outbound topics,
+ * and requests/second against the stock and store endpoints. Everything runs in-process on embedded
+ * Kafka and Postgres with a stubbed product API, so it works on an offline box.
+ *
+ * <p>Excluded from the regular build by its tag; run it with {@code mvn -Pe2e-benchmark test}. Every knob
+ * is a {@code -Dbenchmark.*} system property, see {@link #setting}. Application logging is lowered to WARN
+ * so console I/O does not dominate the numbers; the report goes to {@code target/e2e-benchmark-report.json}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.profiles.active=test",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.producer.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.jpa.show-sql=false",
+        "eureka.client.enabled=false",
+        "custom.merchant.email=merchant@store.test",
+        "logging.level.com.fawry=WARN",
+        "logging.level.com.fawry.store_api.benchmark=INFO",
+        "logging.level.org.apache.kafka=WARN"
+})
+@EmbeddedKafka(partitions = 6, topics = {"order-events", "payment-canceled-events", "store-events", "store-updated-events"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Slf4j
+class EndToEndThroughputBenchmark {
+
+    private static final String ORDER_TOPIC = "order-events";
+    private static final String RESERVED_TOPIC = "store-updated-events";
+    private static final String CANCELED_TOPIC = "store-events";
+    private static final String ORDER_GROUP = "store_order_id";
+
+    private static final ProductApiStub PRODUCT_API = ProductApiStub.start();
+
+    @DynamicPropertySource
+    static void productApi(DynamicPropertyRegistry registry) {
+        registry.add("product.api.base-url", PRODUCT_API::baseUrl);
+    }
+
+    @AfterAll
+    static void stopProductApi() {
+        PRODUCT_API.close();
+    }
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+
+    @Test
+    void measureThroughput() throws Exception {
+        SyntheticDataset dataset = SyntheticDataset.load(jdbcTemplate, stockRepository, new SyntheticDataset.Settings(
+                (int) setting("stores", 20),
+                (int) setting("skus-per-store", 500),
+                (int) setting("initial-quantity", 1_000),
+                setting("hot-sku-fraction", 0.01),
+                setting("hot-line-share", 0.5),
+                (int) setting("max-items-per-order", 4),
+                (long) setting("seed", 42)));
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isAutoStartup()) {
+                ContainerTestUtils.waitForAssignment(container, broker.getPartitionsPerTopic());
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("dataset", dataset.describe());
+
+        runOrders(dataset, (int) setting("warmup-orders", 1_000), 0);
+        Map<String, Object> orders = runOrders(dataset, (int) setting("orders", 20_000), setting("order-rate", 0));
+        report.put("orders", orders);
+
+        Duration httpDuration = Duration.ofSeconds((long) setting("http-seconds", 15));
+        int httpConcurrency = (int) setting("http-concurrency", 16);
+        runHttp(dataset, Duration.ofSeconds((long) setting("http-warmup-seconds", 3)), httpConcurrency);
+        report.put("http", runHttp(dataset, httpDuration, httpConcurrency));
+
+        Path reportFile = Path.of(System.getProperty("benchmark.report", "target/e2e-benchmark-report.json"));
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        log.info("Benchmark report written to {}", reportFile.toAbsolutePath());
+
+        assertThat(orders.get("completed")).isEqualTo(orders.get("sent"));
+    }
+
+    /**
+     * Produces {@code count} orders, unthrottled or at {@code ratePerSecond}, and waits for one outcome
+     * per order. Latency runs from handing the event to the producer to the outcome being consumed, so it
+     * includes listener queueing and the outbox relay delay.
+     */
+    private Map<String, Object> runOrders(SyntheticDataset dataset, int count, double ratePerSecond) throws Exception {
+        Map<Long, Long> sentAt = new ConcurrentHashMap<>(count * 2);
+        Set<Long> completed = ConcurrentHashMap.newKeySet(count * 2);
+        LatencyRecorder latency = new LatencyRecorder();
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong canceled = new AtomicLong();
+        AtomicLong maxLag = new AtomicLong();
+        AtomicLong lastOutcomeAt = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        ExecutorService outcomes = Executors.newSingleThreadExecutor();
+        ScheduledExecutorService lagSampler = Executors.newSingleThreadScheduledExecutor();
+        try (KafkaConsumer<String, byte[]> consumer = outcomeConsumer();
+             KafkaProducer<String, OrderCreatedEventDTO> producer = orderProducer();
+             AdminClient admin = AdminClient.create(Map.of("bootstrap.servers", broker.getBrokersAsString()))) {
+            consumer.subscribe(List.of(RESERVED_TOPIC, CANCELED_TOPIC));
+            while (consumer.assignment().isEmpty()) {
+                consumer.poll(Duration.ofMillis(100));
+            }
+            consumer.seekToEnd(consumer.assignment());
+            consumer.assignment().forEach(consumer::position);
+
+            Future<?> outcomeLoop = outcomes.submit(() -> {
+                while (running.get() && completed.size() < count) {
+                    for (ConsumerRecord<String, byte[]> outcome : consumer.poll(Duration.ofMillis(50))) {
+                        long now = System.nanoTime();
+                        Long orderId = Long.valueOf(outcome.key());
+                        Long sent = sentAt.get(orderId);
+                        if (sent != null && completed.add(orderId)) {
+                            latency.record(now - sent);
+                            (RESERVED_TOPIC.equals(outcome.topic()) ? reserved : canceled).incrementAndGet();
+                            lastOutcomeAt.set(now);
+                        }
+                    }
+                }
+                return null;
+            });
+            lagSampler.scheduleAtFixedRate(() -> maxLag.accumulateAndGet(orderLag(admin), Math::max),
+                    0, 250, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            long intervalNanos = ratePerSecond > 0 ? (long) (1_000_000_000L / ratePerSecond) : 0;
+            for (int i = 0; i < count; i++) {
+                if (intervalNanos > 0) {
+                    long due = start + i * intervalNanos;
+                    while (System.nanoTime() < due) {
+                        Thread.onSpinWait();
+                    }
+                }
+                long orderId = nextOrderId.getAndIncrement();
+                OrderCreatedEventDTO order = dataset.nextOrder(orderId);
+                sentAt.put(orderId, System.nanoTime());
+                producer.send(new ProducerRecord<>(ORDER_TOPIC, String.valueOf(orderId), order));
+            }
+            producer.flush();
+            long produced = System.nanoTime();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos((long) setting("timeout-seconds", 300));
+            while (completed.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            running.set(false);
+            outcomeLoop.get(10, TimeUnit.SECONDS);
+            lagSampler.shutdownNow();
+
+            double elapsedSeconds = (Math.max(lastOutcomeAt.get(), start) - start) / 1e9;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("sent", count);
+            result.put("completed", completed.size());
+            result.put("reserved", reserved.get());
+            result.put("canceled", canceled.get());
+            result.put("produceSeconds", round((produced - start) / 1e9));
+            result.put("elapsedSeconds", round(elapsedSeconds));
+            result.put("ordersPerSecond", round(completed.size() / Math.max(elapsedSeconds, 1e-9)));
+            result.put("latency", latency.summary());
+            result.put("maxConsumerLag", maxLag.get());
+            result.put("finalConsumerLag", orderLag(admin));
+            return result;
+        } finally {
+            running.set(false);
+            outcomes.shutdownNow();
+            lagSampler.shutdownNow();
+        }
+    }
+
+    /**
+     * Closed-loop HTTP load: each worker sends its next request as soon as the previous one returns.
+     * The mix is mostly keyset stock pages and store reads with some single-quantity writes.
+     */
+    private Map<String, Object> runHttp(SyntheticDataset dataset, Duration duration, int concurrency) throws Exception {
+        Map<String, LatencyRecorder> latencies = new ConcurrentHashMap<>();
+        Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String baseUrl = "http://localhost:" + port;
+        long end = System.nanoTime() + duration.toNanos();
+
+        List<Future<?>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        double pick = dataset.nextDouble();
+                        String operation;
+                        HttpRequest request;
+                        if (pick < 0.6) {
+                            operation = "GET /api/stocks/store/{id}?limit=50";
+                            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/stocks/store/" + dataset.nextStoreId() + "?limit=50"))
+                                    .GET().build();
+                        } else if (pick < 0.85) {
+                            operation = "GET /api/stores/{id}";
+                            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/stores/" + dataset.nextStoreId()))
+                                    .GET().build();
+                        } else {
+                            operation = "PUT /api/stocks/update-quantity";
+                            SyntheticDataset.Sku sku = dataset.nextSku();
+                            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/stocks/update-quantity?storeId="
+                                            + sku.storeId() + "&productId=" + sku.productId() + "&quantity=500"))
+                                    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+                        }
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies.computeIfAbsent(operation, key -> new LatencyRecorder()).record(System.nanoTime() - start);
+                        if (response.statusCode() >= 400) {
+                            errors.computeIfAbsent(operation, key -> new AtomicLong()).incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrency", concurrency);
+        result.put("seconds", duration.toSeconds());
+        result.put("requestsPerSecond", round(latencies.values().stream().mapToLong(LatencyRecorder::count).sum()
+                / (double) duration.toSeconds()));
+        result.put("operations", latencies.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("requestsPerSecond", round(entry.getValue().count() / (double) duration.toSeconds()));
+            operation.put("errors", errors.getOrDefault(entry.getKey(), new AtomicLong()).get());
+            operation.put("latency", entry.getValue().summary());
+            return operation;
+        }, (first, second) -> first, LinkedHashMap::new)));
+        return result;
+    }
+
+    private long orderLag(AdminClient admin) {
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(ORDER_GROUP)
+                    .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+            Map<TopicPartition, OffsetSpec> latest = new LinkedHashMap<>();
+            for (int partition = 0; partition < broker.getPartitionsPerTopic(); partition++) {
+                latest.put(new TopicPartition(ORDER_TOPIC, partition), OffsetSpec.latest());
+            }
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(latest)
+                    .all().get(5, TimeUnit.SECONDS);
+            long lag = 0;
+            for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end : ends.entrySet()) {
+                OffsetAndMetadata offset = committed.get(end.getKey());
+                lag += end.getValue().offset() - (offset == null ? 0 : offset.offset());
+            }
+            return lag;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private KafkaConsumer<String, byte[]> outcomeConsumer() {
+        return new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, "e2e-benchmark-outcomes-" + nextOrderId.get(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false),
+                new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private KafkaProducer<String, OrderCreatedEventDTO> orderProducer() {
+        JsonSerializer<OrderCreatedEventDTO> serializer = new JsonSerializer<>(objectMapper);
+        serializer.configure(Map.of(
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, true,
+                JsonSerializer.TYPE_MAPPINGS, "orderCreatedEventDTO:com.fawry.kafka.events.OrderCreatedEventDTO"), false);
+        return new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.LINGER_MS_CONFIG, 5,
+                ProducerConfig.ACKS_CONFIG, "all"),
+                new StringSerializer(), serializer);
+    }
+
+    private static double setting(String name, double defaultValue) {
+        String value = System.getProperty("benchmark." + name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
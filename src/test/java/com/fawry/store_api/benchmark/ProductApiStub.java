@@ -0,0 +1,78 @@
+package com.fawry.store_api.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Stands in for the product service: every product id exists and is answered from memory, so the
+ * benchmark measures this service and not a remote one.
+ */
+public final class ProductApiStub implements AutoCloseable {
+
+    private static final String PRODUCTS_PATH = "/api/products";
+
+    private final HttpServer server;
+
+    private ProductApiStub(HttpServer server) {
+        this.server = server;
+    }
+
+    public static ProductApiStub start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            ProductApiStub stub = new ProductApiStub(server);
+            server.createContext(PRODUCTS_PATH, stub::handle);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String body;
+        if (uri.getPath().length() > PRODUCTS_PATH.length() + 1) {
+            body = product(Long.parseLong(uri.getPath().substring(PRODUCTS_PATH.length() + 1)));
+        } else {
+            String ids = uri.getQuery() == null ? "" : uri.getQuery().replaceFirst("^ids=", "");
+            body = Arrays.stream(ids.split(","))
+                    .filter(id -> !id.isBlank())
+                    .map(id -> product(Long.parseLong(id)))
+                    .collect(Collectors.joining(",", "[", "]"));
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String product(long id) {
+        return "{\"id\":" + id + ",\"name\":\"Product " + id + "\",\"price\":" + (5 + id % 100)
+                + ",\"description\":\"Synthetic product " + id + "\",\"imageUrl\":null}";
+    }
+}
@@ -0,0 +1,110 @@
+package com.fawry.store_api.benchmark;
+
+import com.fawry.kafka.dto.OrderItemDTO;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.store_api.repository.StockRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Stores and SKUs loaded straight into the database, plus a generator of orders over them. A small set
+ * of hot SKUs receives most of the order lines, the way a promotion or a best seller does, so hot rows
+ * see real lock contention and run out of stock during long runs.
+ */
+final class SyntheticDataset {
+
+    private final List<Long> storeIds;
+    private final List<Sku> hotSkus;
+    private final List<Sku> coldSkus;
+    private final double hotLineShare;
+    private final int maxItemsPerOrder;
+    private final Random random;
+
+    private SyntheticDataset(List<Long> storeIds, List<Sku> hotSkus, List<Sku> coldSkus,
+                             double hotLineShare, int maxItemsPerOrder, Random random) {
+        this.storeIds = storeIds;
+        this.hotSkus = hotSkus;
+        this.coldSkus = coldSkus;
+        this.hotLineShare = hotLineShare;
+        this.maxItemsPerOrder = maxItemsPerOrder;
+        this.random = random;
+    }
+
+    static SyntheticDataset load(JdbcTemplate jdbcTemplate, StockRepository stockRepository, Settings settings) {
+        Random random = new Random(settings.seed());
+
+        List<Object[]> stores = new ArrayList<>(settings.stores());
+        for (int i = 0; i < settings.stores(); i++) {
+            stores.add(new Object[]{"Benchmark Store " + i, i + " Benchmark Street"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO stores (store_name, store_address) VALUES (?, ?)", stores);
+        List<Long> storeIds = jdbcTemplate.queryForList(
+                "SELECT store_id FROM stores WHERE store_name LIKE 'Benchmark Store %' ORDER BY store_id", Long.class);
+
+        List<Sku> skus = new ArrayList<>(settings.stores() * settings.skusPerStore());
+        List<Object[]> stock = new ArrayList<>(settings.skusPerStore());
+        for (Long storeId : storeIds) {
+            stock.clear();
+            for (long productId = 1; productId <= settings.skusPerStore(); productId++) {
+                skus.add(new Sku(storeId, productId));
+                stock.add(new Object[]{productId, storeId, settings.initialQuantity()});
+            }
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO stock (product_id, store_id, stock_available_quantity, stock_last_updated)
+                    VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+                    """, stock);
+        }
+        stockRepository.recountStores(storeIds);
+
+        Collections.shuffle(skus, random);
+        int hot = Math.max(1, (int) Math.round(skus.size() * settings.hotSkuFraction()));
+        return new SyntheticDataset(storeIds, List.copyOf(skus.subList(0, hot)), List.copyOf(skus.subList(hot, skus.size())),
+                settings.hotLineShare(), settings.maxItemsPerOrder(), random);
+    }
+
+    synchronized OrderCreatedEventDTO nextOrder(long orderId) {
+        int items = 1 + random.nextInt(maxItemsPerOrder);
+        List<OrderItemDTO> orderItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            Sku sku = nextSku();
+            orderItems.add(new OrderItemDTO(sku.storeId(), sku.productId(), 1 + random.nextInt(3), BigDecimal.TEN));
+        }
+        return new OrderCreatedEventDTO(orderId, 1L + random.nextInt(10_000), "ORDER_CREATED", "CREATED",
+                "customer@store.test", "Benchmark Customer", "0100", null, BigDecimal.TEN, orderItems, null);
+    }
+
+    synchronized Sku nextSku() {
+        List<Sku> pool = coldSkus.isEmpty() || random.nextDouble() < hotLineShare ? hotSkus : coldSkus;
+        return pool.get(random.nextInt(pool.size()));
+    }
+
+    synchronized long nextStoreId() {
+        return storeIds.get(random.nextInt(storeIds.size()));
+    }
+
+    synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("stores", storeIds.size());
+        description.put("skus", hotSkus.size() + coldSkus.size());
+        description.put("hotSkus", hotSkus.size());
+        description.put("hotLineShare", hotLineShare);
+        description.put("maxItemsPerOrder", maxItemsPerOrder);
+        return description;
+    }
+
+    record Sku(Long storeId, Long productId) {}
+
+    record Settings(int stores, int skusPerStore, int initialQuantity, double hotSkuFraction,
+                    double hotLineShare, int maxItemsPerOrder, long seed) {}
+}
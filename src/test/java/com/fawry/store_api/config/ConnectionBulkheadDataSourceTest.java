@@ -0,0 +1,73 @@
+package com.fawry.store_api.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConnectionBulkheadDataSourceTest {
+
+    @Test
+    void callersBeyondTheLimitWaitForAReleaseAndOverflowIsRejected() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionBulkheadDataSource bulkhead = new ConnectionBulkheadDataSource(pool, 2, 1, Duration.ofSeconds(10));
+
+        Connection first = bulkhead.getConnection();
+        Connection second = bulkhead.getConnection();
+        assertThat(bulkhead.getAvailablePermits()).isZero();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return bulkhead.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bulkhead.getWaiting() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(bulkhead.getWaiting()).isEqualTo(1);
+
+            assertThatThrownBy(bulkhead::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+            assertThat(bulkhead.getRejected()).isEqualTo(1);
+
+            first.close();
+            first.close();
+            waiting.get(5, TimeUnit.SECONDS).close();
+        }
+        second.close();
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void timesOutAndGivesThePermitBackWhenThePoolFails() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted")).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionBulkheadDataSource bulkhead = new ConnectionBulkheadDataSource(pool, 1, 10, Duration.ofMillis(50));
+
+        assertThatThrownBy(bulkhead::getConnection).hasMessage("pool exhausted");
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(1);
+
+        try (Connection held = bulkhead.getConnection()) {
+            assertThatThrownBy(bulkhead::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessageContaining("Timed out");
+        }
+        assertThat(bulkhead.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,198 @@
+package com.fawry.store_api.controller;
+
+import com.fawry.store_api.benchmark.ProductApiStub;
+import com.fawry.store_api.monitoring.SqlStatementBudget;
+import com.fawry.store_api.monitoring.SqlStatementHeaderAdvice;
+import com.fawry.store_api.repository.StockRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+
+/**
+ * Runs the endpoints against several stores' worth of data and fails when one executes more statements
+ * than its {@link SqlStatementBudget}. A query per row shows up here as soon as there is more than one row.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.producer.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.jpa.show-sql=false",
+        "eureka.client.enabled=false",
+        "custom.merchant.email=merchant@store.test"
+})
+@AutoConfigureMockMvc
+@EmbeddedKafka(partitions = 1, topics = {"order-events", "payment-canceled-events", "store-events", "store-updated-events"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class SqlStatementBudgetTest {
+
+    private static final int STORES = 5;
+    private static final int ROWS_PER_STORE = 20;
+
+    private static final ProductApiStub PRODUCT_API = ProductApiStub.start();
+    private static Map<String, Long> ids;
+
+    @DynamicPropertySource
+    static void productApi(DynamicPropertyRegistry registry) {
+        registry.add("product.api.base-url", PRODUCT_API::baseUrl);
+    }
+
+    @AfterAll
+    static void stopProductApi() {
+        PRODUCT_API.close();
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private RequestMappingHandlerMapping requestMappingHandlerMapping;
+
+    static Stream<Arguments> endpoints() {
+        return Stream.of(
+                Arguments.of(HttpMethod.GET, "/api/stores", null),
+                Arguments.of(HttpMethod.GET, "/api/stores/{store}", null),
+                Arguments.of(HttpMethod.GET, "/api/stores/{store}/products?page=0&size=10", null),
+                Arguments.of(HttpMethod.GET, "/api/stores/{store}/products?limit=10", null),
+                Arguments.of(HttpMethod.POST, "/api/stores", """
+                        {"name": "Budget Store New", "address": "9 Budget Street"}
+                        """),
+                Arguments.of(HttpMethod.PUT, "/api/stores", """
+                        {"id": {store}, "name": "Budget Store 1", "address": "2 Budget Street"}
+                        """),
+                Arguments.of(HttpMethod.GET, "/api/stocks/{stock}", null),
+                Arguments.of(HttpMethod.GET, "/api/stocks/store/{store}", null),
+                Arguments.of(HttpMethod.GET, "/api/stocks/store/{store}?limit=10", null),
+                Arguments.of(HttpMethod.POST, "/api/stocks", """
+                        {"productId": 999, "storeId": {store}, "stockAvailableQuantity": 3}
+                        """),
+                Arguments.of(HttpMethod.PUT, "/api/stocks", """
+                        {"id": {stock}, "productId": 1, "storeId": {store}, "stockAvailableQuantity": 12}
+                        """),
+                Arguments.of(HttpMethod.POST, "/api/stocks/import?format=csv", """
+                        storeId,productId,quantity
+                        {store},1,9
+                        {otherStore},500,4
+                        """),
+                Arguments.of(HttpMethod.PUT, "/api/stocks/update-quantity?storeId={store}&productId={product}&quantity=7", null),
+                Arguments.of(HttpMethod.PUT, "/api/stocks/update-quantities", """
+                        [{"storeId": {store}, "productId": 2, "quantity": 5, "mode": "ABSOLUTE"},
+                         {"storeId": {store}, "productId": 3, "quantity": -1, "mode": "DELTA"}]
+                        """),
+                Arguments.of(HttpMethod.GET, "/api/consumptions/{consumption}", null),
+                Arguments.of(HttpMethod.GET, "/api/consumptions/store/{store}", null),
+                Arguments.of(HttpMethod.GET, "/api/consumptions/store/{store}?limit=10", null),
+                Arguments.of(HttpMethod.POST, "/api/consumptions", """
+                        {"productId": 4, "storeId": {store}, "consumptionQuantity": 1, "productPrice": 2.50}
+                        """),
+                Arguments.of(HttpMethod.GET, "/api/consumptions/rollups/store/{store}/daily?from=2000-01-01&to=2100-01-01", null),
+                Arguments.of(HttpMethod.GET, "/api/consumptions/rollups/store/{store}/totals?from=2000-01-01&to=2100-01-01", null),
+                Arguments.of(HttpMethod.POST, "/api/consumptions/rollups/store/{store}/rebuild", null),
+                Arguments.of(HttpMethod.DELETE, "/api/consumptions/{consumption}", null),
+                Arguments.of(HttpMethod.DELETE, "/api/stocks/{stock}", null),
+                Arguments.of(HttpMethod.DELETE, "/api/stores/{otherStore}", null)
+        );
+    }
+
+    @BeforeEach
+    void seed() {
+        if (ids != null) {
+            return;
+        }
+        List<Long> storeIds = new ArrayList<>();
+        for (int store = 1; store <= STORES; store++) {
+            storeIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO stores (store_name, store_address) VALUES (?, '1 Budget Street') RETURNING store_id",
+                    Long.class, "Budget Store " + store));
+        }
+        for (Long storeId : storeIds) {
+            for (long product = 1; product <= ROWS_PER_STORE; product++) {
+                jdbcTemplate.update("""
+                        INSERT INTO stock (product_id, store_id, stock_available_quantity, stock_last_updated)
+                        VALUES (?, ?, 10, CURRENT_TIMESTAMP)
+                        """, product, storeId);
+                jdbcTemplate.update("""
+                        INSERT INTO product_consumptions (product_id, store_id, product_price, consumption_quantity)
+                        VALUES (?, ?, 2.50, 1)
+                        """, product, storeId);
+            }
+        }
+        stockRepository.recountStores(storeIds);
+
+        Long storeId = storeIds.getFirst();
+        ids = Map.of(
+                "store", storeId,
+                "otherStore", storeIds.get(1),
+                "product", 1L,
+                "stock", jdbcTemplate.queryForObject("SELECT MIN(stock_id) FROM stock WHERE store_id = ?", Long.class, storeId),
+                "consumption", jdbcTemplate.queryForObject(
+                        "SELECT MIN(consumption_id) FROM product_consumptions WHERE store_id = ?", Long.class, storeId));
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("endpoints")
+    void endpointStaysWithinItsStatementBudget(HttpMethod method, String uri, String body) throws Exception {
+        MockHttpServletRequestBuilder request = request(method, resolve(uri));
+        if (body != null) {
+            request.contentType(body.startsWith("{") || body.startsWith("[") ? MediaType.APPLICATION_JSON : MediaType.TEXT_PLAIN)
+                    .content(resolve(body));
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+
+        assertThat(result.getResponse().getStatus()).as("status of %s %s", method, uri).isLessThan(400);
+        String statements = result.getResponse().getHeader(SqlStatementHeaderAdvice.STATEMENT_COUNT_HEADER);
+        assertThat(statements).as("statement count header of %s %s", method, uri).isNotNull();
+        SqlStatementBudget budget = ((HandlerMethod) result.getHandler()).getMethodAnnotation(SqlStatementBudget.class);
+        assertThat(budget).as("statement budget of %s %s", method, uri).isNotNull();
+        assertThat(Integer.parseInt(statements))
+                .as("statements executed by %s %s", method, uri)
+                .isLessThanOrEqualTo(budget.value());
+    }
+
+    @Test
+    void everyEndpointDeclaresABudget() {
+        assertThat(requestMappingHandlerMapping.getHandlerMethods().values())
+                .filteredOn(handler -> handler.getBeanType().getPackageName().startsWith("com.fawry"))
+                .isNotEmpty()
+                .allSatisfy(handler -> assertThat(handler.hasMethodAnnotation(SqlStatementBudget.class))
+                        .as("%s declares a @SqlStatementBudget", handler)
+                        .isTrue());
+    }
+
+    private static String resolve(String template) {
+        for (Map.Entry<String, Long> id : ids.entrySet()) {
+            template = template.replace("{" + id.getKey() + "}", String.valueOf(id.getValue()));
+        }
+        return template;
+    }
+}
@@ -0,0 +1,59 @@
+package com.fawry.store_api.fixture;
+
+import com.fawry.kafka.dto.OrderItemDTO;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.store_api.entity.Stock;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.repository.StoreRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Saves stores and stock rows straight through the repositories. The services are bypassed, so the
+ * store counters do not include these rows until they are recounted.
+ */
+@TestComponent
+public class StoreFixtures {
+
+    private final StoreRepository storeRepository;
+    private final StockRepository stockRepository;
+
+    public StoreFixtures(StoreRepository storeRepository, StockRepository stockRepository) {
+        this.storeRepository = storeRepository;
+        this.stockRepository = stockRepository;
+    }
+
+    public Store store(String name) {
+        return storeRepository.save(Store.builder()
+                .name(name)
+                .address("1 Test Street")
+                .build());
+    }
+
+    public Stock stock(Store store, Long productId, int quantity) {
+        return stockRepository.saveAndFlush(Stock.builder()
+                .store(store)
+                .productId(productId)
+                .stockAvailableQuantity(quantity)
+                .stockLastUpdated(Instant.now())
+                .build());
+    }
+
+    public static OrderItemDTO line(Store store, Long productId, int quantity) {
+        return new OrderItemDTO(store.getId(), productId, quantity, BigDecimal.ONE);
+    }
+
+    public static OrderCreatedEventDTO order(Long orderId, OrderItemDTO... items) {
+        return OrderCreatedEventDTO.newInstance(
+                orderId, 1L, "ORDER_CREATED", "CREATED",
+                "customer@store.test", "Customer", "0100",
+                null, BigDecimal.TEN,
+                List.of(items),
+                null
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.fawry.store_api.repository;
+
+import com.fawry.store_api.dto.ProductConsumptionDailyDTO;
+import com.fawry.store_api.dto.ProductConsumptionTotalsDTO;
+import com.fawry.store_api.entity.ProductConsumption;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.fixture.StoreFixtures;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import(StoreFixtures.class)
+class ProductConsumptionDailyRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 14);
+
+    @Autowired
+    private ProductConsumptionDailyRepository dailyRepository;
+    @Autowired
+    private ProductConsumptionRepository consumptionRepository;
+    @Autowired
+    private StoreFixtures fixtures;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void incrementalUpdatesMatchARebuild() {
+        Store store = fixtures.store("Rollup Store");
+        ProductConsumption first = consume(store, 10L, 2, "5.00", DAY);
+        consume(store, 10L, 3, "5.00", DAY);
+        consume(store, 10L, 1, "4.50", DAY.plusDays(1));
+        ProductConsumption other = consume(store, 11L, 7, "1.25", DAY);
+
+        dailyRepository.removeConsumption(first.getConsumptionId());
+        consumptionRepository.delete(first);
+        dailyRepository.removeConsumption(other.getConsumptionId());
+        consumptionRepository.delete(other);
+        dailyRepository.deleteEmptyDays(store.getId());
+
+        List<ProductConsumptionDailyDTO> incremental = dailyRepository.findDaily(store.getId(), null, DAY, DAY.plusDays(1));
+        assertThat(incremental)
+                .extracting(ProductConsumptionDailyDTO::productId, ProductConsumptionDailyDTO::day,
+                        ProductConsumptionDailyDTO::totalQuantity, ProductConsumptionDailyDTO::consumptionCount)
+                .containsExactly(
+                        tuple(10L, DAY, 3L, 1L),
+                        tuple(10L, DAY.plusDays(1), 1L, 1L));
+
+        consumptionRepository.flush();
+        dailyRepository.deleteStore(store.getId());
+        dailyRepository.rebuildStore(store.getId());
+        assertThat(dailyRepository.findDaily(store.getId(), null, DAY, DAY.plusDays(1)))
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(incremental);
+
+        List<ProductConsumptionTotalsDTO> totals = dailyRepository.findTotals(store.getId(), 10L, DAY, DAY.plusDays(1));
+        assertThat(totals).singleElement().satisfies(total -> {
+            assertThat(total.totalQuantity()).isEqualTo(4L);
+            assertThat(total.totalRevenue()).isEqualByComparingTo("19.50");
+        });
+    }
+
+    private ProductConsumption consume(Store store, Long productId, int quantity, String price, LocalDate day) {
+        ProductConsumption consumption = consumptionRepository.saveAndFlush(ProductConsumption.builder()
+                .store(store)
+                .productId(productId)
+                .consumptionQuantity(quantity)
+                .productPrice(new BigDecimal(price))
+                .build());
+        jdbcTemplate.update("UPDATE product_consumptions SET consumption_date = ? WHERE consumption_id = ?",
+                Timestamp.valueOf(day.atTime(12, 0)), consumption.getConsumptionId());
+        dailyRepository.addConsumption(consumption.getConsumptionId());
+        return consumption;
+    }
+}
@@ -0,0 +1,150 @@
+package com.fawry.store_api.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the indexes behind the hot repository queries. The tables are nearly empty here, so the planner
+ * is told to avoid sequential scans; a query that still gets one has no usable index. Keyset pages
+ * must also come straight off an index in key order, without sorting the store's rows first.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("InventoryReservationRepository.findByOrderId",
+                        "SELECT * FROM inventory_reservation WHERE order_id = 1"),
+                Arguments.of("InventoryReservationRepository.releaseReservations", """
+                        UPDATE inventory_reservation SET status = 'CANCELED'
+                        WHERE order_id = 1 AND status = 'RESERVED'
+                        RETURNING store_id, product_id, reserved_quantity
+                        """),
+                Arguments.of("InventoryReservationRepository.expireReservations", """
+                        SELECT order_id FROM inventory_reservation
+                        WHERE status = 'RESERVED'
+                          AND reserve_inventory_last_updated < CURRENT_TIMESTAMP - make_interval(secs => 1800)
+                          AND store_id IS NOT NULL
+                        ORDER BY reserve_inventory_last_updated
+                        LIMIT 500
+                        """),
+                Arguments.of("InventoryReservationRepository.expireReservations (lock)", """
+                        SELECT id FROM inventory_reservation
+                        WHERE order_id IN (1, 2) AND status = 'RESERVED' AND store_id IS NOT NULL
+                        FOR UPDATE SKIP LOCKED
+                        """),
+                Arguments.of("StockRepository.findByStoreId",
+                        "SELECT * FROM stock WHERE store_id = 1"),
+                Arguments.of("StockRepository.findByStoreIdAndProductId",
+                        "SELECT * FROM stock WHERE store_id = 1 AND product_id = 2"),
+                Arguments.of("StockRepository.findByProductId",
+                        "SELECT * FROM stock WHERE product_id = 2"),
+                Arguments.of("StockRepository.recountStores", """
+                        SELECT store_id, SUM(stock_available_quantity), COUNT(*)
+                        FROM stock WHERE store_id = ANY (ARRAY[1, 2]::BIGINT[])
+                        GROUP BY store_id
+                        """),
+                Arguments.of("Store.stockQuantity (pending deltas)",
+                        "SELECT SUM(quantity_delta) FROM store_stock_counter_deltas WHERE store_id = 1"),
+                Arguments.of("StoreRepository.foldStockCounterDeltas", """
+                        SELECT delta_id FROM store_stock_counter_deltas
+                        ORDER BY delta_id LIMIT 5000
+                        FOR UPDATE SKIP LOCKED
+                        """),
+                Arguments.of("StockRepository.findStockLevels",
+                        "SELECT * FROM stock WHERE store_id IN (1, 2) AND product_id IN (3, 4)"),
+                Arguments.of("StockRepository.decrementAllIfAvailable", """
+                        UPDATE stock SET stock_available_quantity = stock_available_quantity - 1
+                        WHERE store_id = 1 AND product_id = 2 AND stock_available_quantity >= 1
+                        """),
+                Arguments.of("ProductConsumptionRepository.findByStoreId",
+                        "SELECT * FROM product_consumptions WHERE store_id = 1"),
+                Arguments.of("ProductConsumptionRepository.findByStoreIdAndProductId",
+                        "SELECT * FROM product_consumptions WHERE store_id = 1 AND product_id = 2"),
+                Arguments.of("StoreRepository.findByName",
+                        "SELECT * FROM stores WHERE store_name = 'Main'"),
+                Arguments.of("OutboxEventRepository.findNextBatch",
+                        "SELECT * FROM store_outbox ORDER BY outbox_id LIMIT 500")
+        );
+    }
+
+    static Stream<Arguments> keysetPages() {
+        return Stream.of(
+                Arguments.of("StockRepository.findPageByStoreId",
+                        "SELECT * FROM stock WHERE store_id = 1 AND stock_id > 100 ORDER BY stock_id LIMIT 51"),
+                Arguments.of("ProductConsumptionRepository.findPageByStoreId", """
+                        SELECT * FROM product_consumptions
+                        WHERE store_id = 1 AND consumption_id > 100
+                        ORDER BY consumption_id LIMIT 51
+                        """),
+                Arguments.of("ProductConsumptionRepository.streamByStoreId", """
+                        SELECT * FROM product_consumptions
+                        WHERE store_id = 1
+                          AND consumption_date >= '2024-01-01' AND consumption_date < '2024-02-01'
+                        ORDER BY consumption_date, consumption_id
+                        """)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesAnIndex(String repositoryMethod, String sql) {
+        String plan = explain(sql);
+
+        assertThat(plan)
+                .as("plan of %s", repositoryMethod)
+                .doesNotContain("Seq Scan");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("keysetPages")
+    void keysetPageIsReadInIndexOrder(String repositoryMethod, String sql) {
+        String plan = explain(sql, "enable_bitmapscan", "enable_sort");
+
+        assertThat(plan)
+                .as("plan of %s", repositoryMethod)
+                .contains("Index Scan")
+                .doesNotContain("Seq Scan")
+                .doesNotContain("Sort");
+    }
+
+    private String explain(String sql, String... disabledPlans) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                for (String disabledPlan : disabledPlans) {
+                    statement.execute("SET " + disabledPlan + " = off");
+                }
+                StringJoiner plan = new StringJoiner("\n");
+                try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                }
+                statement.execute("RESET ALL");
+                return plan.toString();
+            }
+        });
+    }
+}
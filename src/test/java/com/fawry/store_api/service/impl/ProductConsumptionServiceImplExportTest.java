@@ -0,0 +1,59 @@
+package com.fawry.store_api.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fawry.store_api.dto.ProductConsumptionExportDTO;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.enums.ExportFormat;
+import com.fawry.store_api.exception.EntityNotFoundException;
+import com.fawry.store_api.mapper.ProductConsumptionMapper;
+import com.fawry.store_api.repository.ProductConsumptionDailyRepository;
+import com.fawry.store_api.repository.ProductConsumptionRepository;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.repository.StoreRepository;
+import com.fawry.store_api.service.ProductConsumptionService.ExportTarget;
+import com.fawry.store_api.service.WebClientService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductConsumptionServiceImplExportTest {
+
+    private final ProductConsumptionRepository consumptionRepository = mock(ProductConsumptionRepository.class);
+    private final StoreRepository storeRepository = mock(StoreRepository.class);
+    private final ProductConsumptionServiceImpl service = new ProductConsumptionServiceImpl(
+            consumptionRepository, mock(ProductConsumptionDailyRepository.class), mock(StockRepository.class),
+            storeRepository, mock(ProductConsumptionMapper.class), mock(WebClientService.class),
+            new ObjectMapper(), mock(EntityManager.class));
+
+    @Test
+    void opensTheTargetOnlyAfterTheRequestIsValid() throws Exception {
+        ExportTarget target = mock(ExportTarget.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(target.open()).thenReturn(out);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(Store.builder().id(1L).build()));
+        when(consumptionRepository.streamByStoreId(eq(1L), any(), any())).thenReturn(Stream.empty());
+        Instant now = Instant.now();
+
+        assertThatThrownBy(() -> service.exportProductConsumptions(2L, null, null, ExportFormat.CSV, target))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> service.exportProductConsumptions(1L, now, now, ExportFormat.CSV, target))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(target, never()).open();
+
+        service.exportProductConsumptions(1L, null, null, ExportFormat.CSV, target);
+        assertThat(out.toString()).isEqualTo(ProductConsumptionExportDTO.CSV_HEADER + "\n");
+    }
+}
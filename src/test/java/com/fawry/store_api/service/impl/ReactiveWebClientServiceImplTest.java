@@ -0,0 +1,172 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.store_api.dto.ProductResponseDTO;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveWebClientServiceImplTest {
+
+    private static final Set<Long> CATALOG = Set.of(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    private static final long THROTTLED_ID = 8L;
+
+    private HttpServer productServer;
+    private final List<String> requestedIds = new CopyOnWriteArrayList<>();
+    private final List<Long> checkedIds = new CopyOnWriteArrayList<>();
+    private volatile Duration delayPerProduct = Duration.ZERO;
+
+    @BeforeEach
+    void startProductServer() throws IOException {
+        productServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        productServer.createContext("/api/products", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            String ids = query != null && query.startsWith("ids=") ? query.substring(4) : "";
+            requestedIds.add(ids);
+
+            List<String> products = Arrays.stream(ids.split(","))
+                    .filter(id -> !id.isBlank())
+                    .map(Long::valueOf)
+                    .filter(CATALOG::contains)
+                    .map(id -> String.format(
+                            "{\"id\":%d,\"name\":\"Product %d\",\"price\":%d.5,\"description\":\"d\",\"imageUrl\":\"i\"}",
+                            id, id, id))
+                    .toList();
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write('[');
+                for (int i = 0; i < products.size(); i++) {
+                    pause();
+                    out.write(((i == 0 ? "" : ",") + products.get(i)).getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write(']');
+            }
+        });
+        productServer.createContext("/api/products/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+            checkedIds.add(id);
+
+            int status = id == THROTTLED_ID ? 429 : CATALOG.contains(id) ? 200 : 404;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        productServer.start();
+    }
+
+    @AfterEach
+    void stopProductServer() {
+        productServer.stop(0);
+    }
+
+    @Test
+    void sendsOnlyRequestedIdsInBoundedChunks() {
+        ReactiveWebClientServiceImpl service = newService(2);
+
+        List<ProductResponseDTO> products = service.getProducts(Set.of(1L, 2L, 3L, 4L, 5L)).collectList().block();
+
+        assertThat(products).extracting(ProductResponseDTO::id)
+                .containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(requestedIds).hasSize(3);
+        assertThat(requestedIds.stream()
+                .flatMap(ids -> Arrays.stream(ids.split(",")))
+                .map(Long::valueOf))
+                .containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(requestedIds).allSatisfy(ids -> assertThat(ids.split(",")).hasSizeLessThanOrEqualTo(2));
+    }
+
+    @Test
+    void servesRepeatedAndMissingIdsFromCache() {
+        ReactiveWebClientServiceImpl service = newService(100);
+
+        assertThat(service.getProducts(Set.of(1L, 42L)).collectList().block()).extracting(ProductResponseDTO::id).containsExactly(1L);
+        assertThat(service.getProducts(Set.of(1L, 42L)).collectList().block()).extracting(ProductResponseDTO::id).containsExactly(1L);
+        assertThat(service.getProducts(Set.of(1L)).collectList().block()).hasSize(1);
+
+        assertThat(requestedIds).hasSize(1);
+        assertThat(service.getProductCacheStats().hitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void fetchesOnlyMissesWhenPartiallyCached() {
+        ReactiveWebClientServiceImpl service = newService(100);
+
+        service.getProducts(Set.of(1L, 2L)).blockLast();
+        service.getProducts(LongStream.rangeClosed(1, 4).boxed().collect(Collectors.toSet())).blockLast();
+
+        assertThat(requestedIds).hasSize(2);
+        assertThat(requestedIds.get(1).split(",")).containsExactlyInAnyOrder("3", "4");
+    }
+
+    @Test
+    void callTimeoutCoversTheWholeResponseNotEachProduct() {
+        delayPerProduct = Duration.ofMillis(150);
+        ReactiveWebClientServiceImpl service = newService(100, Duration.ofMillis(400));
+
+        assertThatThrownBy(() -> service.getProducts(Set.of(1L, 2L, 3L, 4L, 5L)).blockLast())
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    @Test
+    void checkCachesNotFoundButLetsOtherClientErrorsThrough() {
+        ReactiveWebClientServiceImpl service = newService(100);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThatThrownBy(() -> service.checkIfProductsExist(42L).block())
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+            assertThatThrownBy(() -> service.checkIfProductsExist(THROTTLED_ID).block())
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        }
+
+        assertThat(checkedIds).containsExactly(42L, THROTTLED_ID, THROTTLED_ID);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(delayPerProduct.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ReactiveWebClientServiceImpl newService(int batchSize) {
+        return newService(batchSize, Duration.ofSeconds(5));
+    }
+
+    private ReactiveWebClientServiceImpl newService(int batchSize, Duration callTimeout) {
+        return new ReactiveWebClientServiceImpl(
+                WebClient.create("http://localhost:" + productServer.getAddress().getPort()),
+                batchSize,
+                4,
+                callTimeout,
+                1_000,
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(1),
+                Duration.ofSeconds(30)
+        );
+    }
+}
@@ -0,0 +1,99 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.kafka.producers.StoreCancellationPublisher;
+import com.fawry.kafka.producers.StoreUpdatedPublisher;
+import com.fawry.store_api.entity.InventoryReservation;
+import com.fawry.store_api.entity.Stock;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.enums.ReservationStatus;
+import com.fawry.store_api.fixture.StoreFixtures;
+import com.fawry.store_api.mapper.StoreMapper;
+import com.fawry.store_api.repository.InventoryReservationRepository;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.service.ReservationExpiryService;
+import com.fawry.store_api.service.StoreService;
+import com.fawry.store_api.service.WebClientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.fawry.store_api.fixture.StoreFixtures.line;
+import static com.fawry.store_api.fixture.StoreFixtures.order;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "custom.merchant.email=merchant@store.test",
+        "store.reservation.expiry.enabled=true",
+        "store.counters.fold.interval=1h"
+})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StoreServiceImpl.class, ReservationExpiryServiceImpl.class, StoreMapper.class, SimpleMeterRegistry.class,
+        StoreFixtures.class})
+class ReservationExpiryServiceImplTest {
+
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private ReservationExpiryService reservationExpiryService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private InventoryReservationRepository inventoryReservationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StoreFixtures fixtures;
+
+    @MockitoBean
+    private WebClientService webClientService;
+    @MockitoBean
+    private StoreUpdatedPublisher storeUpdatedPublisher;
+    @MockitoBean
+    private StoreCancellationPublisher storeCancellationPublisher;
+
+    @Test
+    void expiredHoldsAreReleasedBackToStock() {
+        Store store = fixtures.store("Expiry Store");
+        Stock stock = fixtures.stock(store, 3001L, 10);
+
+        storeService.reserveStore(order(700L, line(store, 3001L, 4)));
+        storeService.reserveStore(order(701L, line(store, 3001L, 3)));
+        assertThat(quantityOf(stock)).isEqualTo(3);
+
+        jdbcTemplate.update("""
+                UPDATE inventory_reservation
+                SET reserve_inventory_last_updated = CURRENT_TIMESTAMP - INTERVAL '2 hours'
+                WHERE order_id = 700
+                """);
+
+        assertThat(reservationExpiryService.expireReservations()).isEqualTo(1);
+        assertThat(reservationExpiryService.expireReservations()).isZero();
+        verify(storeCancellationPublisher).publishOrderCanceledEvent(argThat(event -> event.getOrderId().equals(700L)));
+        verify(storeCancellationPublisher, never()).publishOrderCanceledEvent(argThat(event -> event.getOrderId().equals(701L)));
+
+        assertThat(quantityOf(stock)).isEqualTo(7);
+        assertThat(inventoryReservationRepository.findByOrderId(700L)).hasValueSatisfying(rows -> assertThat(rows)
+                .extracting(InventoryReservation::getStatus)
+                .containsExactly(ReservationStatus.EXPIRED));
+        assertThat(inventoryReservationRepository.findByOrderId(701L)).hasValueSatisfying(rows -> assertThat(rows)
+                .extracting(InventoryReservation::getStatus)
+                .containsExactly(ReservationStatus.RESERVED));
+    }
+
+    private int quantityOf(Stock stock) {
+        return stockRepository.findById(stock.getId()).orElseThrow().getStockAvailableQuantity();
+    }
+}
@@ -0,0 +1,150 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.store_api.dto.ProductResponseDTO;
+import com.fawry.store_api.dto.StockImportErrorDTO;
+import com.fawry.store_api.dto.StockImportReportDTO;
+import com.fawry.store_api.entity.Stock;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.enums.ImportFormat;
+import com.fawry.store_api.exception.PayloadTooLargeException;
+import com.fawry.store_api.fixture.StoreFixtures;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.repository.StoreRepository;
+import com.fawry.store_api.service.StockImportService;
+import com.fawry.store_api.service.WebClientService;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "store.stock.import.chunk-size=2",
+        "store.stock.import.max-size=1KB"
+})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StockImportServiceImpl.class, JacksonAutoConfiguration.class, StoreFixtures.class})
+class StockImportServiceImplTest {
+
+    private static final long UNKNOWN_PRODUCT = 999L;
+
+    @Autowired
+    private StockImportService stockImportService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private StoreFixtures fixtures;
+
+    @MockitoBean
+    private WebClientService webClientService;
+
+    private final AtomicBoolean lookedUpInTransaction = new AtomicBoolean();
+
+    @BeforeEach
+    void knownProducts() {
+        when(webClientService.getProducts(any())).thenAnswer(invocation -> {
+            lookedUpInTransaction.compareAndSet(false, TransactionSynchronizationManager.isActualTransactionActive());
+            Set<Long> productIds = invocation.getArgument(0);
+            return productIds.stream()
+                    .filter(productId -> productId != UNKNOWN_PRODUCT)
+                    .map(productId -> ProductResponseDTO.builder().id(productId).build())
+                    .toList();
+        });
+    }
+
+    @Test
+    void importsValidRowsAndReportsTheRest() throws Exception {
+        Store store = fixtures.store("Import Store");
+        fixtures.stock(store, 10L, 3);
+        long storeId = store.getId();
+
+        StockImportReportDTO report = stockImportService.importStock(ImportFormat.CSV, input(
+                "storeId,productId,quantity",
+                storeId + ",10,25",
+                storeId + ",11,5",
+                storeId + ",12,-1",
+                storeId + ",11,6",
+                "not,a,row",
+                "",
+                storeId + "," + UNKNOWN_PRODUCT + ",1",
+                "-42,13,1",
+                storeId + ",13,0"));
+
+        assertThat(report.rowsRead()).isEqualTo(8);
+        assertThat(report.rowsImported()).isEqualTo(3);
+        assertThat(report.errorCount()).isEqualTo(5);
+        assertThat(report.errors())
+                .extracting(StockImportErrorDTO::line, StockImportErrorDTO::message)
+                .containsExactly(
+                        tuple(4L, "Stock quantity cannot be negative"),
+                        tuple(5L, "Duplicate of line 3"),
+                        tuple(6L, "Malformed number: For input string: \"not\""),
+                        tuple(8L, "Product with ID 999 not found"),
+                        tuple(9L, "Store with ID -42 not found"));
+
+        entityManager.clear();
+        assertThat(stockRepository.findByStoreId(storeId))
+                .extracting(Stock::getProductId, Stock::getStockAvailableQuantity)
+                .containsExactlyInAnyOrder(tuple(10L, 25), tuple(11L, 5), tuple(13L, 0));
+        Store reloaded = storeRepository.findById(storeId).orElseThrow();
+        assertThat(reloaded.getStockQuantity()).isEqualTo(30L);
+        assertThat(reloaded.getStockItemCount()).isEqualTo(3);
+        assertThat(lookedUpInTransaction).isFalse();
+    }
+
+    @Test
+    void importsNdjson() throws Exception {
+        Store store = fixtures.store("Ndjson Store");
+
+        StockImportReportDTO report = stockImportService.importStock(ImportFormat.NDJSON, input(
+                "{\"storeId\":" + store.getId() + ",\"productId\":20,\"quantity\":7}",
+                "{\"storeId\":" + store.getId() + ",\"productId\":21}"));
+
+        assertThat(report.rowsImported()).isEqualTo(1);
+        assertThat(report.errors())
+                .extracting(StockImportErrorDTO::line, StockImportErrorDTO::message)
+                .containsExactly(tuple(2L, "storeId, productId and quantity are required"));
+    }
+
+    @Test
+    void rejectsABodyOverTheMaximumSizeBeforeImporting() {
+        Store store = fixtures.store("Oversized Store");
+        String[] lines = IntStream.range(0, 500)
+                .mapToObj(productId -> store.getId() + "," + productId + ",1")
+                .toArray(String[]::new);
+
+        assertThatThrownBy(() -> stockImportService.importStock(ImportFormat.CSV, input(lines)))
+                .isInstanceOf(PayloadTooLargeException.class);
+        assertThat(stockRepository.findByStoreId(store.getId())).isEmpty();
+    }
+
+    private static ByteArrayInputStream input(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.store_api.dto.StockQuantityUpdateDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateRejectionDTO;
+import com.fawry.store_api.dto.StockQuantityUpdateResultDTO;
+import com.fawry.store_api.entity.Stock;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.fixture.StoreFixtures;
+import com.fawry.store_api.mapper.StockMapper;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.repository.StoreRepository;
+import com.fawry.store_api.service.StockService;
+import com.fawry.store_api.service.WebClientService;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static com.fawry.store_api.enums.StockQuantityUpdateMode.ABSOLUTE;
+import static com.fawry.store_api.enums.StockQuantityUpdateMode.DELTA;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import({StockServiceImpl.class, StockMapper.class, StoreFixtures.class})
+class StockServiceImplBatchUpdateTest {
+
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private StoreFixtures fixtures;
+
+    @MockitoBean
+    private WebClientService webClientService;
+
+    @Test
+    void appliesUpdatesInOrderAndReportsTheRest() {
+        Store store = fixtures.store("Batch Store");
+        fixtures.stock(store, 1L, 10);
+        fixtures.stock(store, 2L, 4);
+        Long storeId = store.getId();
+
+        StockQuantityUpdateResultDTO result = stockService.updateStockQuantities(List.of(
+                new StockQuantityUpdateDTO(storeId, 1L, 20, ABSOLUTE),
+                new StockQuantityUpdateDTO(storeId, 1L, -5, DELTA),
+                new StockQuantityUpdateDTO(storeId, 2L, -5, DELTA),
+                new StockQuantityUpdateDTO(storeId, 3L, 1, null),
+                new StockQuantityUpdateDTO(storeId, 2L, -1, ABSOLUTE),
+                new StockQuantityUpdateDTO(storeId, 2L, 3, DELTA)));
+
+        assertThat(result.requested()).isEqualTo(6);
+        assertThat(result.updated()).isEqualTo(3);
+        assertThat(result.rejected())
+                .extracting(StockQuantityUpdateRejectionDTO::index, StockQuantityUpdateRejectionDTO::reason)
+                .containsExactly(
+                        tuple(2, "Stock quantity cannot be negative"),
+                        tuple(3, "Stock not found"),
+                        tuple(4, "Stock quantity cannot be negative"));
+
+        entityManager.clear();
+        assertThat(stockRepository.findByStoreId(storeId))
+                .extracting(Stock::getProductId, Stock::getStockAvailableQuantity)
+                .containsExactlyInAnyOrder(tuple(1L, 15), tuple(2L, 7));
+        Store reloaded = storeRepository.findById(storeId).orElseThrow();
+        assertThat(reloaded.getStockQuantity()).isEqualTo(22L);
+        assertThat(reloaded.getStockItemCount()).isEqualTo(2);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentAbsoluteUpdatesKeepTheStoreCountersInStep() {
+        Store store = fixtures.store("Contended Store");
+        fixtures.stock(store, 1L, 0);
+        Long storeId = store.getId();
+
+        CompletableFuture<?>[] writers = IntStream.range(0, 4)
+                .mapToObj(writer -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        stockService.updateStockQuantity(storeId, 1L, ThreadLocalRandom.current().nextInt(100));
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(writers).join();
+
+        int finalQuantity = stockRepository.findByStoreIdAndProductId(storeId, 1L).orElseThrow().getStockAvailableQuantity();
+        assertThat(storeRepository.findById(storeId).orElseThrow().getStockQuantity()).isEqualTo(finalQuantity);
+    }
+}
@@ -0,0 +1,98 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.kafka.events.OrderCanceledEventDTO;
+import com.fawry.kafka.producers.StoreCancellationPublisher;
+import com.fawry.kafka.producers.StoreUpdatedPublisher;
+import com.fawry.store_api.dto.StoreDTO;
+import com.fawry.store_api.entity.Stock;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.fixture.StoreFixtures;
+import com.fawry.store_api.mapper.StoreMapper;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.service.StoreCounterReconciliationService;
+import com.fawry.store_api.service.StoreService;
+import com.fawry.store_api.service.WebClientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.fawry.store_api.fixture.StoreFixtures.line;
+import static com.fawry.store_api.fixture.StoreFixtures.order;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "custom.merchant.email=merchant@store.test",
+        "store.counters.fold.interval=1h"
+})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StoreServiceImpl.class, StoreCounterReconciliationServiceImpl.class, StoreMapper.class, SimpleMeterRegistry.class,
+        StoreFixtures.class})
+class StoreCounterReconciliationServiceImplTest {
+
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private StoreCounterReconciliationService storeCounterReconciliationService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StoreFixtures fixtures;
+
+    @MockitoBean
+    private WebClientService webClientService;
+    @MockitoBean
+    private StoreUpdatedPublisher storeUpdatedPublisher;
+    @MockitoBean
+    private StoreCancellationPublisher storeCancellationPublisher;
+
+    @Test
+    void storeCountersFollowReservationsAndReconcileDrift() {
+        Store store = fixtures.store("Counter Store");
+        Stock first = fixtures.stock(store, 4001L, 10);
+        fixtures.stock(store, 4002L, 5);
+
+        // the fixtures bypass the services, so the counters start out drifted
+        storeCounterReconciliationService.reconcileStockCounters();
+        assertThat(storeService.getStoreById(store.getId()))
+                .extracting(StoreDTO::productCount, StoreDTO::totalStockItems)
+                .containsExactly(15L, 2);
+
+        storeService.reserveStore(order(800L,
+                line(store, 4001L, 4),
+                line(store, 4002L, 5)));
+        storeService.reserveStore(order(801L, line(store, 4001L, 7)));
+        assertThat(storeService.getStoreById(store.getId()).productCount()).isEqualTo(6L);
+
+        storeService.cancelReservation(new OrderCanceledEventDTO(800L, "payment failed", "customer@store.test"));
+        assertThat(storeService.getStoreById(store.getId()).productCount()).isEqualTo(15L);
+        assertThat(stockRepository.findById(first.getId()).orElseThrow().getStockAvailableQuantity()).isEqualTo(10);
+
+        // stock writes only append deltas; the store row is written when they are folded
+        assertThat(storedStockQuantity(store)).isZero();
+        StoreDTO maintained = storeService.getStoreById(store.getId());
+        storeCounterReconciliationService.foldStockCounterDeltas();
+        assertThat(storedStockQuantity(store)).isEqualTo(15L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM store_stock_counter_deltas WHERE store_id = ?",
+                Long.class, store.getId())).isZero();
+        assertThat(storeService.getStoreById(store.getId())).isEqualTo(maintained);
+
+        assertThat(storeCounterReconciliationService.reconcileStockCounters()).isZero();
+        assertThat(storeService.getStoreById(store.getId())).isEqualTo(maintained);
+    }
+
+    private Long storedStockQuantity(Store store) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM stores WHERE store_id = ?", Long.class, store.getId());
+    }
+}
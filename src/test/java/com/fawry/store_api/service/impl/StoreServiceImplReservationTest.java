@@ -0,0 +1,201 @@
+package com.fawry.store_api.service.impl;
+
+import com.fawry.kafka.dto.OrderItemDTO;
+import com.fawry.kafka.events.OrderCanceledEventDTO;
+import com.fawry.kafka.events.OrderCreatedEventDTO;
+import com.fawry.kafka.producers.StoreCancellationPublisher;
+import com.fawry.kafka.producers.StoreUpdatedPublisher;
+import com.fawry.store_api.entity.InventoryReservation;
+import com.fawry.store_api.entity.Stock;
+import com.fawry.store_api.entity.Store;
+import com.fawry.store_api.enums.ReservationStatus;
+import com.fawry.store_api.fixture.StoreFixtures;
+import com.fawry.store_api.mapper.StoreMapper;
+import com.fawry.store_api.repository.InventoryReservationRepository;
+import com.fawry.store_api.repository.StockRepository;
+import com.fawry.store_api.service.StoreService;
+import com.fawry.store_api.service.WebClientService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.fawry.store_api.fixture.StoreFixtures.line;
+import static com.fawry.store_api.fixture.StoreFixtures.order;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "custom.merchant.email=merchant@store.test",
+        "store.counters.fold.interval=1h"
+})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StoreServiceImpl.class, StoreMapper.class, SimpleMeterRegistry.class, StoreFixtures.class})
+class StoreServiceImplReservationTest {
+
+    private static final int AVAILABLE_QUANTITY = 10;
+    private static final int ORDERS = 40;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private InventoryReservationRepository inventoryReservationRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private StoreFixtures fixtures;
+
+    @MockitoBean
+    private WebClientService webClientService;
+    @MockitoBean
+    private StoreUpdatedPublisher storeUpdatedPublisher;
+    @MockitoBean
+    private StoreCancellationPublisher storeCancellationPublisher;
+
+    @Test
+    void concurrentOrdersForOneSkuNeverOversell() throws Exception {
+        Store store = fixtures.store("Concurrency Store");
+        Stock stock = fixtures.stock(store, 1001L, AVAILABLE_QUANTITY);
+
+        List<OrderCreatedEventDTO> orders = new ArrayList<>();
+        for (long orderId = 1; orderId <= ORDERS; orderId++) {
+            orders.add(order(orderId, line(store, stock.getProductId(), 1)));
+        }
+        reserveConcurrently(orders);
+
+        assertThat(quantityOf(stock)).isZero();
+        assertThat(inventoryReservationRepository.findAll())
+                .filteredOn(reservation -> reservation.getStatus() == ReservationStatus.RESERVED)
+                .hasSize(AVAILABLE_QUANTITY);
+        verify(storeUpdatedPublisher, times(AVAILABLE_QUANTITY)).publishStoreUpdatedEvent(any());
+        verify(storeCancellationPublisher, times(ORDERS - AVAILABLE_QUANTITY)).publishOrderCanceledEvent(any());
+    }
+
+    @Test
+    void ordersListingTheSameProductsInOppositeOrderDoNotDeadlock() throws Exception {
+        Store store = fixtures.store("Lock Order Store");
+        Stock first = fixtures.stock(store, 5001L, ORDERS);
+        Stock second = fixtures.stock(store, 5002L, ORDERS);
+
+        List<OrderCreatedEventDTO> orders = new ArrayList<>();
+        for (long orderId = 900; orderId < 900 + ORDERS; orderId++) {
+            OrderItemDTO firstLine = line(store, first.getProductId(), 1);
+            OrderItemDTO secondLine = line(store, second.getProductId(), 1);
+            orders.add(orderId % 2 == 0
+                    ? order(orderId, firstLine, secondLine)
+                    : order(orderId, secondLine, firstLine));
+        }
+        reserveConcurrently(orders);
+
+        assertThat(quantityOf(first)).isZero();
+        assertThat(quantityOf(second)).isZero();
+    }
+
+    @Test
+    void duplicateLinesAreCoalescedAndShortOrdersLeaveStockUntouched() {
+        Store store = fixtures.store("Coalescing Store");
+        Stock first = fixtures.stock(store, 2001L, 5);
+        Stock second = fixtures.stock(store, 2002L, 1);
+
+        storeService.reserveStore(order(500L,
+                line(store, 2001L, 2),
+                line(store, 2001L, 2),
+                line(store, 2002L, 2)));
+
+        assertThat(quantityOf(first)).isEqualTo(5);
+        assertThat(quantityOf(second)).isEqualTo(1);
+        assertThat(inventoryReservationRepository.findByOrderId(500L)).hasValueSatisfying(rows -> assertThat(rows).isEmpty());
+        assertThat(meterRegistry.get("store.reservation.reserve")
+                .tags("outcome", "insufficient_inventory", "order.size", "2-5").timer().count()).isEqualTo(1);
+
+        storeService.reserveStore(order(501L,
+                line(store, 2001L, 2),
+                line(store, 2001L, 3),
+                line(store, 2002L, 1)));
+
+        assertThat(quantityOf(first)).isZero();
+        assertThat(quantityOf(second)).isZero();
+        assertThat(inventoryReservationRepository.findByOrderId(501L)).hasValueSatisfying(rows -> assertThat(rows)
+                .extracting(InventoryReservation::getProductId, InventoryReservation::getReservedQuantity)
+                .containsExactlyInAnyOrder(tuple(2001L, 5), tuple(2002L, 1)));
+
+        storeService.cancelReservation(new OrderCanceledEventDTO(501L, "payment failed", "customer@store.test"));
+        storeService.cancelReservation(new OrderCanceledEventDTO(501L, "payment failed", "customer@store.test"));
+
+        assertThat(quantityOf(first)).isEqualTo(5);
+        assertThat(quantityOf(second)).isEqualTo(1);
+    }
+
+    @Test
+    void ordersWithANonPositiveLineAreRejectedBeforeTouchingStock() {
+        Store store = fixtures.store("Invalid Order Store");
+        Stock first = fixtures.stock(store, 6001L, 5);
+        Stock second = fixtures.stock(store, 6002L, 5);
+
+        // the lines still sum to a positive quantity, but a negative line is never valid on its own
+        storeService.reserveStore(order(600L,
+                line(store, 6001L, 2),
+                line(store, 6002L, 4),
+                line(store, 6002L, -3)));
+        storeService.reserveStore(order(601L, line(store, 6001L, 0)));
+
+        assertThat(quantityOf(first)).isEqualTo(5);
+        assertThat(quantityOf(second)).isEqualTo(5);
+        assertThat(inventoryReservationRepository.findByOrderId(600L)).hasValueSatisfying(rows -> assertThat(rows).isEmpty());
+        verify(storeCancellationPublisher).publishOrderCanceledEvent(argThat(event ->
+                event.getOrderId().equals(600L) && event.getReason().equals("Invalid quantity -3 for product 6002")));
+        verify(storeCancellationPublisher).publishOrderCanceledEvent(argThat(event ->
+                event.getOrderId().equals(601L) && event.getReason().equals("Invalid quantity 0 for product 6001")));
+        verify(storeUpdatedPublisher, never()).publishStoreUpdatedEvent(any());
+        assertThat(meterRegistry.get("store.reservation.reserve").tags("outcome", "invalid").timers().stream()
+                .mapToLong(Timer::count).sum()).isEqualTo(2);
+    }
+
+    private void reserveConcurrently(List<OrderCreatedEventDTO> orders) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (OrderCreatedEventDTO order : orders) {
+            results.add(executor.submit(() -> {
+                start.await();
+                storeService.reserveStore(order);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private int quantityOf(Stock stock) {
+        return stockRepository.findById(stock.getId()).orElseThrow().getStockAvailableQuantity();
+    }
+}